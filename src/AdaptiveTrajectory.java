@@ -0,0 +1,120 @@
+/**
+ * The flight of one particle solved with the DormandPrinceSolver.  The system holds four
+ * equations, for the two velocity components and the two position components, so that
+ * the position is solved to the same accuracy as the velocity.  The mass and radius of a
+ * burning particle are worked out from the time inside the equations, so they change
+ * smoothly across a long step.
+ * Used by the ParticleStore for the kinds of particles that are set to the adaptive
+ * integrator.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class AdaptiveTrajectory implements BufferedODESystem {
+
+	/**
+	 * The largest error allowed in one step, in m/sec for velocity and metres for
+	 * position, and relative to their sizes.
+	 */
+	public static final double TOLERANCE = 1.0E-4;
+	/**
+	 * The largest step the solver may take in seconds.
+	 */
+	public static final double MAX_STEP = 0.25;
+	private static final double INITIAL_STEP = 1.0 / 60;	// sec
+	// A burning particle is never allowed to burn below this fraction of its starting mass,
+	// which also holds for the batch solvers.
+	static final double MIN_MASS_FRACTION = 0.01;
+	private static final int SYSTEM_SIZE = 4;
+
+	private final double creationTime;		// sec
+	private final double startingMass;		// kg
+	private final double burnRate;			// kg/sec
+	private final double density;			// kg/m^3
+	private final double radius;			// metres, when not burning
+	private double wind;					// m/sec
+	private final double[] state = new double[SYSTEM_SIZE];		// vx, vy, x, y
+	private final DormandPrinceSolver solver =
+			new DormandPrinceSolver(SYSTEM_SIZE, TOLERANCE, INITIAL_STEP, MAX_STEP);
+
+	/**
+	 * The AdaptiveTrajectory constructor.
+	 * @param posX The starting x position in metres.
+	 * @param posY The starting y position in metres.
+	 * @param velX The starting x velocity in m/sec.
+	 * @param velY The starting y velocity in m/sec.
+	 * @param creationTime The absolute creation time in seconds.
+	 * @param mass The starting mass in kg.
+	 * @param radius The radius in metres, used when the particle does not burn.
+	 * @param burnRate The burn rate in kg/sec, 0 if the particle does not burn.
+	 * @param density The density in kg/m^3, used only when the particle burns.
+	 * @param wind The wind velocity in m/sec.
+	 */
+	public AdaptiveTrajectory(double posX, double posY, double velX, double velY,
+			double creationTime, double mass, double radius, double burnRate, double density,
+			double wind) {
+		this.creationTime = creationTime;
+		startingMass = mass;
+		this.radius = radius;
+		this.burnRate = burnRate;
+		this.density = density;
+		this.wind = wind;
+		state[0] = velX;
+		state[1] = velY;
+		state[2] = posX;
+		state[3] = posY;
+		solver.reset(this, creationTime);
+	} // end Constructor
+
+	/**
+	 * Finds the velocity and position at the supplied time.  If the wind has changed, the
+	 * solver is restarted from the current position so that no step spans the change.
+	 * @param time The absolute time in seconds, no earlier than the previous call.
+	 * @param wind The wind velocity in m/sec.
+	 * @param result An array of four that receives vx, vy in m/sec and x, y in metres.
+	 */
+	public void advanceTo(double time, double wind, double[] result) {
+		if (wind != this.wind) {
+			solver.getPoint(this, time, state);
+			this.wind = wind;
+			solver.reset(this, time);
+		}
+		solver.getPoint(this, time, result);
+	} // end advanceTo
+
+	/**
+	 * An accessor for the solver, so that its step counts can be reported.
+	 * @return The DormandPrinceSolver of this trajectory.
+	 */
+	public DormandPrinceSolver getSolver() { return solver; }
+
+	public int getSystemSize() { return SYSTEM_SIZE; }
+
+	public double[] getVelocity() {
+		return new double[] {state[0], state[1]};
+	} // end getVelocity
+
+	public void getState(double[] values) {
+		System.arraycopy(state, 0, values, 0, SYSTEM_SIZE);
+	} // end getState
+
+	public double[] getFunction(double time, double[] values) {
+		double[] functionVal = new double[SYSTEM_SIZE];
+		getFunction(time, values, functionVal);
+		return functionVal;
+	} // end getFunction
+
+	public void getFunction(double time, double[] values, double[] result) {
+		double mass = startingMass;
+		double currentRadius = radius;
+		if (burnRate > 0) {
+			mass = Math.max(startingMass - (time - creationTime) * burnRate,
+					startingMass * MIN_MASS_FRACTION);
+			currentRadius = BurningParticle.getRadius(mass, density);
+		}
+		result[0] = Particle.xDE(values[0], values[1], wind, mass, currentRadius);
+		result[1] = Particle.yDE(values[0], values[1], wind, mass, currentRadius);
+		result[2] = values[0];
+		result[3] = values[1];
+	} // end getFunction
+
+} // end AdaptiveTrajectory class
@@ -0,0 +1,181 @@
+/**
+ * Advances a whole range of particles by one RK4 step at a time.  Unlike the
+ * RungeKuttaSolver, which evaluates one ODESystem at a time, this class works directly
+ * on the primitive arrays of a ParticleStore and evaluates each RK4 stage for every
+ * particle in one simple loop.  The drag equations are written out in full in each loop,
+ * with no method calls or branches, so that the JIT compiler can vectorize them.
+ * The drag constant of each particle is calculated once per step instead of once per
+ * stage, and the velocity magnitude is calculated only once per stage.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class BatchRungeKuttaSolver {
+
+	// Scratch arrays, one set per thread: the drag constant divided by the mass, the
+	// x and y parts of the four RK4 stages and the intermediate velocities.
+	private static final ThreadLocal<double[][]> SCRATCH = new ThreadLocal<>();
+	private static final int NUM_SCRATCH = 11;
+	// Arrays used to gather scattered slots together, one set per thread: the positions,
+	// velocities, masses and radii.
+	private static final ThreadLocal<double[][]> GATHER = new ThreadLocal<>();
+	private static final int NUM_GATHER = 6;
+
+	/**
+	 * Advances particles from slot "from" up to, but not including, slot "to" by one
+	 * time interval.  The velocities are found with RK4 and the positions are then moved
+	 * with the new velocities, as in Particle.updatePosition().
+	 * @param x The x positions in metres.
+	 * @param y The y positions in metres.
+	 * @param vx The x velocities in m/sec.
+	 * @param vy The y velocities in m/sec.
+	 * @param mass The masses in kg.
+	 * @param radius The radii in metres.
+	 * @param from The first slot to advance.
+	 * @param to One past the last slot to advance.
+	 * @param wind The wind velocity in m/sec.
+	 * @param deltaTime The time interval in seconds.
+	 */
+	public static void advance(double[] x, double[] y, double[] vx, double[] vy,
+			double[] mass, double[] radius, int from, int to, double wind, double deltaTime) {
+		int count = to - from;
+		if (count <= 0)
+			return;
+		double[][] scratch = getScratch(count);
+		double[] c = scratch[0];
+		double[] k1x = scratch[1];
+		double[] k1y = scratch[2];
+		double[] k2x = scratch[3];
+		double[] k2y = scratch[4];
+		double[] k3x = scratch[5];
+		double[] k3y = scratch[6];
+		double[] k4x = scratch[7];
+		double[] k4y = scratch[8];
+		double[] tx = scratch[9];
+		double[] ty = scratch[10];
+		double halfDelta = deltaTime / 2;
+		double g = Environment.G;
+		int i;
+
+		for (i = 0; i < count; i++)
+			c[i] = Particle.getDragConstant(radius[from + i]) / mass[from + i];
+
+		// Stage 1
+		for (i = 0; i < count; i++) {
+			double vxa = vx[from + i] - wind;
+			double vY = vy[from + i];
+			double mag = Math.sqrt(vxa * vxa + vY * vY);
+			k1x[i] = -c[i] * mag * vxa;
+			k1y[i] = -g - c[i] * mag * vY;
+			tx[i] = vx[from + i] + halfDelta * k1x[i];
+			ty[i] = vY + halfDelta * k1y[i];
+		}
+		// Stage 2
+		for (i = 0; i < count; i++) {
+			double vxa = tx[i] - wind;
+			double vY = ty[i];
+			double mag = Math.sqrt(vxa * vxa + vY * vY);
+			k2x[i] = -c[i] * mag * vxa;
+			k2y[i] = -g - c[i] * mag * vY;
+			tx[i] = vx[from + i] + halfDelta * k2x[i];
+			ty[i] = vy[from + i] + halfDelta * k2y[i];
+		}
+		// Stage 3
+		for (i = 0; i < count; i++) {
+			double vxa = tx[i] - wind;
+			double vY = ty[i];
+			double mag = Math.sqrt(vxa * vxa + vY * vY);
+			k3x[i] = -c[i] * mag * vxa;
+			k3y[i] = -g - c[i] * mag * vY;
+			tx[i] = vx[from + i] + deltaTime * k3x[i];
+			ty[i] = vy[from + i] + deltaTime * k3y[i];
+		}
+		// Stage 4
+		for (i = 0; i < count; i++) {
+			double vxa = tx[i] - wind;
+			double vY = ty[i];
+			double mag = Math.sqrt(vxa * vxa + vY * vY);
+			k4x[i] = -c[i] * mag * vxa;
+			k4y[i] = -g - c[i] * mag * vY;
+		}
+		// Combine the stages and move the particles.
+		for (i = 0; i < count; i++) {
+			double newVx = vx[from + i] + deltaTime * (k1x[i] + 2 * k2x[i] + 2 * k3x[i] + k4x[i]) / 6;
+			double newVy = vy[from + i] + deltaTime * (k1y[i] + 2 * k2y[i] + 2 * k3y[i] + k4y[i]) / 6;
+			vx[from + i] = newVx;
+			vy[from + i] = newVy;
+			x[from + i] += newVx * deltaTime;
+			y[from + i] += newVy * deltaTime;
+		}
+	} // end advance
+
+	/**
+	 * Advances the particles in the listed slots by one time interval, in the same way as
+	 * the other advance() method.  The listed slots are gathered into contiguous arrays,
+	 * advanced, and scattered back.
+	 * @param x The x positions in metres.
+	 * @param y The y positions in metres.
+	 * @param vx The x velocities in m/sec.
+	 * @param vy The y velocities in m/sec.
+	 * @param mass The masses in kg.
+	 * @param radius The radii in metres.
+	 * @param slots The slots to advance.
+	 * @param count The number of slots listed.
+	 * @param wind The wind velocity in m/sec.
+	 * @param deltaTime The time interval in seconds.
+	 */
+	public static void advance(double[] x, double[] y, double[] vx, double[] vy,
+			double[] mass, double[] radius, int[] slots, int count, double wind, double deltaTime) {
+		if (count <= 0)
+			return;
+		double[][] gather = getGather(count);
+		double[] gx = gather[0];
+		double[] gy = gather[1];
+		double[] gvx = gather[2];
+		double[] gvy = gather[3];
+		double[] gm = gather[4];
+		double[] gr = gather[5];
+		int i;
+		for (i = 0; i < count; i++) {
+			int slot = slots[i];
+			gx[i] = x[slot];
+			gy[i] = y[slot];
+			gvx[i] = vx[slot];
+			gvy[i] = vy[slot];
+			gm[i] = mass[slot];
+			gr[i] = radius[slot];
+		}
+		advance(gx, gy, gvx, gvy, gm, gr, 0, count, wind, deltaTime);
+		for (i = 0; i < count; i++) {
+			int slot = slots[i];
+			x[slot] = gx[i];
+			y[slot] = gy[i];
+			vx[slot] = gvx[i];
+			vy[slot] = gvy[i];
+		}
+	} // end advance
+
+	// Returns the gather arrays of the calling thread, making sure they can hold the
+	// supplied number of particles.
+	private static double[][] getGather(int count) {
+		double[][] gather = GATHER.get();
+		if (gather == null || gather[0].length < count) {
+			int length = gather == null ? count : Math.max(count, gather[0].length * 2);
+			gather = new double[NUM_GATHER][length];
+			GATHER.set(gather);
+		}
+		return gather;
+	} // end getGather
+
+	// Returns the scratch arrays of the calling thread, making sure they can hold the
+	// supplied number of particles.
+	private static double[][] getScratch(int count) {
+		double[][] scratch = SCRATCH.get();
+		if (scratch == null || scratch[0].length < count) {
+			int length = scratch == null ? count : Math.max(count, scratch[0].length * 2);
+			scratch = new double[NUM_SCRATCH][length];
+			SCRATCH.set(scratch);
+		}
+		return scratch;
+	} // end getScratch
+
+} // end BatchRungeKuttaSolver class
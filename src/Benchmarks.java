@@ -0,0 +1,211 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * A microbenchmark suite for the physics and emission hot paths.  Each benchmark is
+ * warmed up and then run repeatedly for a fixed time.  The time and the bytes allocated
+ * by the benchmark thread are both reported per unit of work, where a unit is one
+ * particle, or one simulation step for the whole-show benchmarks, so that changes in
+ * ns/op or B/op show up before they reach a show.  The benchmarks that work on a
+ * population are repeated for each population size.
+ * Usage: java Benchmarks [population sizes...]
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class Benchmarks {
+
+	private static final int[] DEFAULT_SIZES = {100, 1000, 10000};
+	private static final long WARMUP_NANOS = 1000000000L;
+	private static final long MEASURE_NANOS = 2000000000L;
+	private static final double DELTA_TIME = 1.0 / 60;		// sec
+	private static final long SEED = 42;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	// Results are added here so that the JIT cannot remove the benchmarked work.
+	private static volatile double sink;
+
+	public static void main(String[] args) throws EnvironmentException, EmitterException {
+		int[] sizes = DEFAULT_SIZES;
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++)
+				sizes[i] = Integer.parseInt(args[i]);
+		}
+		Environment env = new Environment(10);
+		System.out.printf("%-44s %8s %12s %10s%n", "Benchmark", "size", "ns/op", "B/op");
+		for (int size : sizes) {
+			benchmarkSolver(size);
+			benchmarkParticles(size, env);
+			benchmarkEmitters(size);
+		}
+		benchmarkShow();
+	} // end main
+
+	// Measures the single particle RK4 solver and the batched solver.
+	private static void benchmarkSolver(int size) {
+		Particle[] sparks = createSparks(size);
+		run("RungeKuttaSolver.getNextPoint", size, () -> {
+			double total = 0;
+			for (Particle spark : sparks)
+				total += RungeKuttaSolver.getNextPoint(spark, 0, DELTA_TIME)[0];
+			sink = total;
+		});
+		double[] result = new double[2];
+		run("RungeKuttaSolver.getNextPoint (buffered)", size, () -> {
+			double total = 0;
+			for (Particle spark : sparks) {
+				RungeKuttaSolver.getNextPoint(spark, 0, DELTA_TIME, result);
+				total += result[0];
+			}
+			sink = total;
+		});
+	} // end benchmarkSolver
+
+	// Measures the position updates of particle objects and of the ParticleStore.
+	private static void benchmarkParticles(int size, Environment env) {
+		Particle[] sparks = createSparks(size);
+		run("Particle.updatePosition", size, () -> {
+			for (Particle spark : sparks)
+				spark.updatePosition(1, DELTA_TIME, env);
+			sink = sparks[0].getX();
+		});
+		BurningParticle[] stars = new BurningParticle[size];
+		BurningParticle starTemplate = new BurningParticle(0.008, Palette.RED, 0.003, 1900);
+		for (int i = 0; i < size; i++)
+			stars[i] = new BurningParticle(new double[] {0, 1}, new double[] {1, 20}, 0,
+					starTemplate.getLifetime(), starTemplate.getMass(), starTemplate.getRadius(),
+					Palette.RED, 0.003, 1900);
+		// The time is held fixed so that the stars never burn out.
+		run("BurningParticle.updatePosition", size, () -> {
+			for (BurningParticle star : stars)
+				star.updatePosition(1, DELTA_TIME, env);
+			sink = stars[0].getX();
+		});
+		ParticleStore store = createStore(size);
+		run("ParticleStore.updatePositions", size, () -> {
+			store.updatePositions(0, store.size(), 1, DELTA_TIME, env);
+			sink = store.getX(0);
+		});
+	} // end benchmarkParticles
+
+	// Measures launching into lists of new particles and into a ParticleStore.
+	private static void benchmarkEmitters(int size) throws EmitterException {
+		Particle template = new Particle(0.6, 2.0E-6, 0.0015, Palette.ORANGE);
+		Emitter emitter = new Emitter(new double[] {0, 1}, 0, 100, 2.2, 0, 90, size, template);
+		emitter.setRandom(new SplittableRandom(SEED));
+		run("Emitter.launch (ArrayList)", size, () -> {
+			ArrayList<Particle> particles = emitter.launch(0);
+			sink = particles.get(0).getX();
+		});
+		ParticleStore store = new ParticleStore(size);
+		run("Emitter.launch (ParticleStore)", size, () -> {
+			store.clear();
+			emitter.launch(0, store, Palette.ORANGE);
+			sink = store.getX(0);
+		});
+		ParticleStore stars = new ParticleStore();
+		BurningParticle starTemplate = new BurningParticle(0.008, Palette.RED, 0.003, 1900);
+		long star = stars.getHandle(stars.add(starTemplate, Palette.RED, 0, 10, 1, 20, 0));
+		MobileEmitter mobile = new MobileEmitter(3, 0, 180, size, template, stars, star);
+		mobile.setRandom(new SplittableRandom(SEED));
+		run("MobileEmitter.launch (ParticleStore)", size, () -> {
+			store.clear();
+			mobile.launch(0, store, Palette.RED);
+			sink = store.getX(0);
+		});
+	} // end benchmarkEmitters
+
+	// Measures whole shows.  One operation is one show, and a unit is one step, so the
+	// allocation figure includes creating the ParticleManager once per show.
+	private static void benchmarkShow() throws EnvironmentException, EmitterException {
+		int steps = countSteps();
+		run("ParticleManager.step (whole show)", steps, () -> {
+			ParticleManager manager = newManager();
+			double time = 0;
+			while (!manager.isFinished()) {
+				time += DELTA_TIME;
+				manager.step(time);
+			}
+			sink = time;
+		});
+		run("ParticleManager.getFireworks (whole show)", steps, () -> {
+			ParticleManager manager = newManager();
+			double time = 0;
+			int total = 0;
+			while (!manager.isFinished()) {
+				time += DELTA_TIME;
+				total += manager.getFireworks(time).size();
+			}
+			sink = total;
+		});
+	} // end benchmarkShow
+
+	// Returns the number of steps in the standard show.
+	private static int countSteps() {
+		ParticleManager manager = newManager();
+		int steps = 0;
+		while (!manager.isFinished())
+			manager.step(++steps * DELTA_TIME);
+		return steps;
+	} // end countSteps
+
+	// Creates the standard show, started at time 0.
+	private static ParticleManager newManager() {
+		try {
+			ParticleManager manager = new ParticleManager(10, 5, SEED);
+			manager.start(0);
+			return manager;
+		} catch (EnvironmentException | EmitterException except) {
+			throw new IllegalStateException(except);
+		}
+	} // end newManager
+
+	// Creates sparks flying in all directions.
+	private static Particle[] createSparks(int size) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		Particle[] sparks = new Particle[size];
+		for (int i = 0; i < size; i++) {
+			double angle = 2 * Math.PI * random.nextDouble();
+			sparks[i] = new Particle(new double[] {0, 1},
+					new double[] {20 * Math.sin(angle), 20 * Math.cos(angle)},
+					0, 1000, 2.0E-6, 0.0015, Palette.ORANGE);
+		}
+		return sparks;
+	} // end createSparks
+
+	// Creates a ParticleStore holding sparks flying in all directions.
+	private static ParticleStore createStore(int size) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		Particle template = new Particle(1000, 2.0E-6, 0.0015, Palette.ORANGE);
+		ParticleStore store = new ParticleStore(size);
+		for (int i = 0; i < size; i++) {
+			double angle = 2 * Math.PI * random.nextDouble();
+			store.add(template, Palette.ORANGE, 0, 1, 20 * Math.sin(angle), 20 * Math.cos(angle), 0);
+		}
+		return store;
+	} // end createStore
+
+	// Warms up and then measures a benchmark, printing the time and allocation per unit.
+	private static void run(String name, int units, Runnable op) {
+		long end = System.nanoTime() + WARMUP_NANOS;
+		while (System.nanoTime() < end)
+			op.run();
+		long threadId = Thread.currentThread().getId();
+		long ops = 0;
+		long startBytes = THREADS.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			op.run();
+			ops++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < MEASURE_NANOS);
+		long bytes = THREADS.getThreadAllocatedBytes(threadId) - startBytes;
+		double perUnit = (double)ops * units;
+		System.out.printf("%-44s %8d %12.2f %10.2f%n", name, units, elapsed / perUnit, bytes / perUnit);
+	} // end run
+
+} // end Benchmarks class
@@ -0,0 +1,29 @@
+/**
+ * An ODESystem that can also work with buffers supplied by the caller, so that the
+ * RungeKuttaSolver does not need to create any arrays while it solves the system.
+ * Any object that implements this interface can still be used wherever an ODESystem
+ * is expected.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public interface BufferedODESystem extends ODESystem {
+
+	/**
+	 * Copies the current values of the dependent variables (the velocity components, vX
+	 * and vY, in m/sec) into the supplied array.
+	 * @param values An array at least the size of the system that receives the values.
+	 */
+	void getState(double[] values);
+
+	/**
+	 * Calculates the values of the fX() and fY() functions at the supplied time and
+	 * velocity components, writing them into the supplied result array.  The values
+	 * array must not be modified.
+	 * @param time The current time in seconds.
+	 * @param values An array of double consisting of the velocity components in m/sec.
+	 * @param result An array at least the size of the system that receives the function
+	 * results described by the ODE equations.
+	 */
+	void getFunction(double time, double[] values, double[] result);
+
+} // end BufferedODESystem interface
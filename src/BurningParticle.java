@@ -1,5 +1,3 @@
-import javafx.scene.paint.Color;
-
 /**
  * An object that describes a particle whose mass is burning away.
  * The object requires the burn rate in kg/sec, the density in kg/m^3 and the starting
@@ -23,31 +21,61 @@ public class BurningParticle extends Particle {
 	 * @param lifetime The lifetime of the particle in seconds.
 	 * @param mass The starting mass of the particle in kg.
 	 * @param radius The starting radius of the particle in metres.
-	 * @param colour The colour of the particle.
+	 * @param colour The palette index of the colour of the particle.
 	 * @param burnRate The burn rate, assumed constant, in kg/sec.
 	 * @param density The density of the particle in kg/m^3.
 	 */
 	public BurningParticle(double[] initialPosition, double[] intialVelocity,
-			double creationTime, double lifetime, double mass, double radius, Color colour,
+			double creationTime, double lifetime, double mass, double radius, int colour,
 			double burnRate, double density) {
 		super(initialPosition, intialVelocity, creationTime, lifetime, mass, radius, colour);
 		startingMass = mass;
 		this.burnRate = burnRate;
 		this.density = density;
+		setIntegrator(ParticleStore.RK4);
 	} // end full parameter Constructor
 
 	/**
 	 * A constructor used when creating a template object for this particle.
 	 * @param mass The starting mass of the particle in kg.
-	 * @param colour The colour of the particle.
+	 * @param colour The palette index of the colour of the particle.
 	 * @param burnRate The burn rate, assumed constant, in kg/sec.
 	 * @param density The density of the particle in kg/m^3.
 	 */
-	public BurningParticle(double mass, Color colour, double burnRate, double density) {
+	public BurningParticle(double mass, int colour, double burnRate, double density) {
 		this(new double[2], new double[2], 0, mass / burnRate, mass,
-				Math.pow(3 * (mass / density) / (4 * Math.PI), 1.0 / 3.0), colour, burnRate, density);
+				getRadius(mass, density), colour, burnRate, density);
 	} // end Constructor
 
+	/**
+	 * Returns the radius of a spherical particle.
+	 * @param mass The mass in kg.
+	 * @param density The density in kg/m^3.
+	 * @return The radius in metres.
+	 */
+	static double getRadius(double mass, double density) {
+		double volume = mass / density;
+		return Math.pow(3 * volume / (4 * Math.PI), 1.0 / 3.0);
+	} // end getRadius
+
+	/**
+	 * An accessor for the burn rate.
+	 * @return The burn rate in kg/sec.
+	 */
+	public double getBurnRate() { return burnRate; }
+
+	/**
+	 * An accessor for the density.
+	 * @return The density in kg/m^3.
+	 */
+	public double getDensity() { return density; }
+
+	/**
+	 * An accessor for the kind of the particle, as used by the ParticleStore.
+	 * @return ParticleStore.STAR.
+	 */
+	public int getKind() { return ParticleStore.STAR; }
+
 	/**
 	 * A mutator that updates the current position of the particle.  It also updates
 	 * the mass and radius of the particle since these are changing as the particle
@@ -58,11 +86,11 @@ public class BurningParticle extends Particle {
 	 * wind velocity, which is used to calculate the apparent velocity.
 	 */
 	public void updatePosition(double time, double deltaTime, Environment env) {
-		double mass = startingMass - (time - getCreationTime()) * burnRate;
-		double volume = mass / density;
-		double radius = Math.pow(3 * volume / (4 * Math.PI), 1.0 / 3.0);
+		// A star is still alive at the very end of its lifetime, when it has no mass left.
+		double mass = Math.max(startingMass - (time - getCreationTime()) * burnRate,
+				startingMass * AdaptiveTrajectory.MIN_MASS_FRACTION);
 		setMass(mass);
-		setRadius(radius);
+		setRadius(getRadius(mass, density));
 		super.updatePosition(time, deltaTime, env);
 	} // end updatePosition
 
@@ -73,6 +101,7 @@ public class BurningParticle extends Particle {
 		BurningParticle newParticle = new BurningParticle(getPosition(), getVelocity(),
 				getCreationTime(), getLifetime(), getMass(), getRadius(), getColour(),
 				burnRate, density);
+		newParticle.setIntegrator(getIntegrator());
 		return newParticle;
 	} // end clone
 
@@ -0,0 +1,203 @@
+/**
+ * An adaptive step solver for any size system of ordinary differential equations, using
+ * the embedded Runge-Kutta 5(4) pair of Dormand and Prince.  Each step estimates its own
+ * error from the difference between the fifth and fourth order results.  A step whose
+ * error is too large is repeated with a smaller step, and the step size grows again
+ * while the solution is smooth.
+ * Unlike the RungeKuttaSolver, an instance of this class holds the state of one system.
+ * Steps are not tied to the times at which the solution is wanted: values between the
+ * ends of a step are found by cubic Hermite interpolation, so a smoothly moving system
+ * may take one step for many frames.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class DormandPrinceSolver {
+
+	// The Dormand-Prince coefficients.
+	private static final double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+	private static final double A21 = 1.0 / 5;
+	private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+	private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+	private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187,
+			A53 = 64448.0 / 6561, A54 = -212.0 / 729;
+	private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247,
+			A64 = 49.0 / 176, A65 = -5103.0 / 18656;
+	private static final double B1 = 35.0 / 384, B3 = 500.0 / 1113, B4 = 125.0 / 192,
+			B5 = -2187.0 / 6784, B6 = 11.0 / 84;
+	// The differences between the fifth and fourth order weights.
+	private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920,
+			E5 = -17253.0 / 339200, E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+	private static final double SAFETY = 0.9;
+	private static final double MIN_SCALE = 0.2;
+	private static final double MAX_SCALE = 5.0;
+	private static final double MIN_STEP = 1.0E-6;	// sec
+
+	private final int systemSize;
+	private final double tolerance;
+	private final double maxStep;			// sec
+	private double step;					// sec, the next step to try
+
+	// The accepted step runs from time0 to time1.
+	private double time0;
+	private double time1;
+	private final double[] y0;
+	private final double[] y1;
+	private final double[] f0;
+	private final double[] f1;
+	private final double[] k2, k3, k4, k5, k6, k7;
+	private final double[] trial;
+
+	private long evaluations = 0;
+	private long acceptedSteps = 0;
+	private long rejectedSteps = 0;
+
+	/**
+	 * The DormandPrinceSolver constructor.
+	 * @param systemSize The number of equations in the system.
+	 * @param tolerance The largest error allowed in one step, for each dependent variable,
+	 * both in the units of that variable and relative to its size.
+	 * @param initialStep The first step size to try in seconds.
+	 * @param maxStep The largest step size allowed in seconds.
+	 */
+	public DormandPrinceSolver(int systemSize, double tolerance, double initialStep, double maxStep) {
+		this.systemSize = systemSize;
+		this.tolerance = tolerance;
+		this.maxStep = maxStep;
+		step = Math.min(initialStep, maxStep);
+		y0 = new double[systemSize];
+		y1 = new double[systemSize];
+		f0 = new double[systemSize];
+		f1 = new double[systemSize];
+		k2 = new double[systemSize];
+		k3 = new double[systemSize];
+		k4 = new double[systemSize];
+		k5 = new double[systemSize];
+		k6 = new double[systemSize];
+		k7 = new double[systemSize];
+		trial = new double[systemSize];
+	} // end Constructor
+
+	/**
+	 * Starts the solver from the current state of the ode object.
+	 * @param ode The system to solve.  Its state is read with getState().
+	 * @param time The time of that state in seconds.
+	 */
+	public void reset(BufferedODESystem ode, double time) {
+		ode.getState(y1);
+		ode.getFunction(time, y1, f1);
+		evaluations++;
+		time1 = time;
+		time0 = time;
+		System.arraycopy(y1, 0, y0, 0, systemSize);
+		System.arraycopy(f1, 0, f0, 0, systemSize);
+	} // end reset
+
+	/**
+	 * Estimates the dependent variables at the supplied time, taking as many steps as are
+	 * needed to reach it.  The time must not be earlier than the time passed to reset()
+	 * or to the previous call.
+	 * @param ode The system to solve, the same one passed to reset().
+	 * @param time The time in seconds.
+	 * @param result An array the size of the system that receives the estimates.
+	 */
+	public void getPoint(BufferedODESystem ode, double time, double[] result) {
+		while (time > time1)
+			takeStep(ode);
+		interpolate(Math.max(time, time0), result);
+	} // end getPoint
+
+	// Takes one accepted step forward from time1, repeating it with smaller steps until
+	// its error is within the tolerance.
+	private void takeStep(BufferedODESystem ode) {
+		System.arraycopy(y1, 0, y0, 0, systemSize);
+		System.arraycopy(f1, 0, f0, 0, systemSize);
+		time0 = time1;
+		while (true) {
+			double h = step;
+			double error = attemptStep(ode, h);
+			double scale = error == 0 ? MAX_SCALE : SAFETY * Math.pow(error, -0.2);
+			scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+			if (error <= 1 || h <= MIN_STEP) {
+				acceptedSteps++;
+				time1 = time0 + h;
+				System.arraycopy(trial, 0, y1, 0, systemSize);
+				System.arraycopy(k7, 0, f1, 0, systemSize);
+				step = Math.min(maxStep, h * scale);
+				return;
+			}
+			rejectedSteps++;
+			step = Math.max(MIN_STEP, h * scale);
+		}
+	} // end takeStep
+
+	// Attempts a step of size h from (time0, y0), leaving the fifth order result in trial
+	// and its derivative in k7.  Returns the error relative to the tolerance.
+	private double attemptStep(BufferedODESystem ode, double h) {
+		int i;
+		for (i = 0; i < systemSize; i++)
+			trial[i] = y0[i] + h * A21 * f0[i];
+		ode.getFunction(time0 + C2 * h, trial, k2);
+		for (i = 0; i < systemSize; i++)
+			trial[i] = y0[i] + h * (A31 * f0[i] + A32 * k2[i]);
+		ode.getFunction(time0 + C3 * h, trial, k3);
+		for (i = 0; i < systemSize; i++)
+			trial[i] = y0[i] + h * (A41 * f0[i] + A42 * k2[i] + A43 * k3[i]);
+		ode.getFunction(time0 + C4 * h, trial, k4);
+		for (i = 0; i < systemSize; i++)
+			trial[i] = y0[i] + h * (A51 * f0[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+		ode.getFunction(time0 + C5 * h, trial, k5);
+		for (i = 0; i < systemSize; i++)
+			trial[i] = y0[i] + h * (A61 * f0[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+		ode.getFunction(time0 + h, trial, k6);
+		for (i = 0; i < systemSize; i++)
+			trial[i] = y0[i] + h * (B1 * f0[i] + B3 * k3[i] + B4 * k4[i] + B5 * k5[i] + B6 * k6[i]);
+		// The last stage is the derivative at the end of the step, reused by the next step.
+		ode.getFunction(time0 + h, trial, k7);
+		evaluations += 6;
+		double sum = 0;
+		for (i = 0; i < systemSize; i++) {
+			double error = h * (E1 * f0[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+			double scale = tolerance * (1 + Math.max(Math.abs(y0[i]), Math.abs(trial[i])));
+			sum += (error / scale) * (error / scale);
+		}
+		return Math.sqrt(sum / systemSize);
+	} // end attemptStep
+
+	// Cubic Hermite interpolation between the two ends of the accepted step.
+	private void interpolate(double time, double[] result) {
+		double h = time1 - time0;
+		if (h <= 0) {
+			System.arraycopy(y1, 0, result, 0, systemSize);
+			return;
+		}
+		double s = (time - time0) / h;
+		double s2 = s * s;
+		double s3 = s2 * s;
+		double h00 = 2 * s3 - 3 * s2 + 1;
+		double h10 = s3 - 2 * s2 + s;
+		double h01 = -2 * s3 + 3 * s2;
+		double h11 = s3 - s2;
+		for (int i = 0; i < systemSize; i++)
+			result[i] = h00 * y0[i] + h10 * h * f0[i] + h01 * y1[i] + h11 * h * f1[i];
+	} // end interpolate
+
+	/**
+	 * An accessor for the number of times the ODE functions have been evaluated.
+	 * @return The number of evaluations since the solver was created.
+	 */
+	public long getEvaluations() { return evaluations; }
+
+	/**
+	 * An accessor for the number of accepted steps.
+	 * @return The number of accepted steps since the solver was created.
+	 */
+	public long getAcceptedSteps() { return acceptedSteps; }
+
+	/**
+	 * An accessor for the number of steps repeated because their error was too large.
+	 * @return The number of rejected steps since the solver was created.
+	 */
+	public long getRejectedSteps() { return rejectedSteps; }
+
+} // end DormandPrinceSolver class
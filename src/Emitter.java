@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 /**
  * The base class for Emitter objects.
@@ -12,6 +13,10 @@ public class Emitter extends Firework {
 	private double exitVelocity;				// m/sec
 	private int numToLaunch;
 	private Particle launchType;
+	private SplittableRandom random = new SplittableRandom();
+	private String name = "emitter";
+	private double emissionRate = 0;			// particles/sec
+	private double owed = 0;					// particles, the part of one still to launch
 
 	/**
 	 * The constructor for an Emitter object.
@@ -49,14 +54,25 @@ public class Emitter extends Firework {
 	// Calculates and returns an angle randomly generated between (firing angle - variation)
 	// and (firing angle + variation) in radians.
 	private double getRandomLaunchAngle() {
-		return launchAngle + launchAngleVariation * 2 * (Math.random() - 0.5);
+		return launchAngle + launchAngleVariation * 2 * (random.nextDouble() - 0.5);
 	} // end getRandomLaunchAngle
 
 	// Adds some variation to the exit velocity.  Returns a value in m/sec.
 	private double getRandomExitVelocity() {
-		return exitVelocity - 0.1 * exitVelocity * (Math.random() - 0.5);
+		return exitVelocity - 0.1 * exitVelocity * (random.nextDouble() - 0.5);
 	} // end getRandomExitVelocity
 
+	/**
+	 * Replaces the random number generator used for the launch angle and exit velocity
+	 * variations.  Each emitter should have its own generator, split from one show
+	 * generator, so that runs can be repeated exactly and emitters on different threads
+	 * never share one.
+	 * @param random The generator, which is used only by this emitter from now on.
+	 */
+	public void setRandom(SplittableRandom random) {
+		this.random = random;
+	} // end setRandom
+
 	/**
 	 * Allows the launch angle to be mutable.
 	 * @param firingAngle The new angle in degrees away from the vertical.
@@ -96,4 +112,152 @@ public class Emitter extends Firework {
 		return particles;
 	} // end launch
 
+	/**
+	 * Names the emitter, so that its EmitterBurstEvent objects can be told apart in a
+	 * Flight Recorder recording.
+	 * @param name The name of the emitter.
+	 */
+	public void setName(String name) {
+		this.name = name;
+	} // end setName
+
+	/**
+	 * An accessor for the name of the emitter.
+	 * @return The name, "emitter" unless it has been set.
+	 */
+	public String getName() { return name; }
+
+	/**
+	 * Launches particles at the supplied time directly into a ParticleStore.  Assumes
+	 * this emitter is stationary.  No Particle objects are created.
+	 * @param time Time in seconds
+	 * @param store The ParticleStore that receives the new particles.
+	 * @param colour The palette index of the colour of the new particles.
+	 * @return The slot of the first particle launched, or -1 if none were.  Unless the
+	 * store had to make room for them, the rest follow it in order.
+	 */
+	public int launch(double time, ParticleStore store, int colour) {
+		return launch(time, store, colour, 0, 0);
+	} // end launch
+
+	/**
+	 * Launches particles at the supplied time directly into a ParticleStore, adding a
+	 * base velocity to the velocity of each.  No objects or arrays are created, so once
+	 * the store has grown to hold the show, launching produces no garbage.
+	 * @param time Time in seconds
+	 * @param store The ParticleStore that receives the new particles.
+	 * @param colour The palette index of the colour of the new particles.
+	 * @param baseVx The x velocity in m/sec added to each particle.
+	 * @param baseVy The y velocity in m/sec added to each particle.
+	 * @return The slot of the first particle launched, or -1 if none were.  Unless the
+	 * store had to make room for them, the rest follow it in order.
+	 */
+	protected int launch(double time, ParticleStore store, int colour, double baseVx, double baseVy) {
+		double angle;
+		double posX = getX();
+		double posY = getY();
+		double variableExitVelocity;
+		int first = -1;
+		EmitterBurstEvent event = new EmitterBurstEvent();
+		event.begin();
+		for (int i = 0; i < numToLaunch; i++) {
+			angle = getRandomLaunchAngle();
+			variableExitVelocity = getRandomExitVelocity();
+			int slot = store.add(launchType, colour, posX, posY, baseVx + variableExitVelocity * Math.sin(angle),
+					baseVy + variableExitVelocity * Math.cos(angle), time);
+			if (first < 0)
+				first = slot;
+		}
+		commitBurst(event, numToLaunch);
+		return first;
+	} // end launch
+
+	/**
+	 * Sets the rate at which emit() launches particles.  The rate, unlike the number
+	 * launched by launch(), does not depend on how often the emitter is called.
+	 * @param rate The emission rate in particles/sec, must be &gt;= 0.
+	 */
+	public void setEmissionRate(double rate) {
+		emissionRate = Math.max(rate, 0);
+	} // end setEmissionRate
+
+	/**
+	 * An accessor for the emission rate.
+	 * @return The emission rate in particles/sec.
+	 */
+	public double getEmissionRate() { return emissionRate; }
+
+	/**
+	 * Launches, directly into a ParticleStore, the particles due at the emission rate over
+	 * an interval.  Assumes this emitter is stationary.  The part of a particle left over
+	 * is carried on to the next interval, so the number launched over many intervals is
+	 * the same however long they are.  See the protected emit() for the birth times.
+	 * @param from The absolute time in seconds of the start of the interval.
+	 * @param to The absolute time in seconds of the end of the interval.
+	 * @param store The ParticleStore that receives the new particles.
+	 * @param colour The palette index of the colour of the new particles.
+	 * @return The slot of the first particle launched, or -1 if none were.  Unless the
+	 * store had to make room for them, the rest follow it in order.
+	 */
+	public int emit(double from, double to, ParticleStore store, int colour) {
+		return emit(from, to, store, colour, 0, 0);
+	} // end emit
+
+	/**
+	 * Launches, directly into a ParticleStore, the particles due at the emission rate over
+	 * an interval, adding a base velocity to the velocity of each.  Each particle is born
+	 * at the moment within the interval at which it falls due, and is moved on from there
+	 * in a straight line to where it would be at the end of the interval, so that particles
+	 * are spread out along their paths instead of leaving in clumps, one for each call.
+	 * The emitter is taken to be at its position, moving at the base velocity, at the end
+	 * of the interval.
+	 * @param from The absolute time in seconds of the start of the interval.
+	 * @param to The absolute time in seconds of the end of the interval.
+	 * @param store The ParticleStore that receives the new particles.
+	 * @param colour The palette index of the colour of the new particles.
+	 * @param baseVx The x velocity in m/sec added to each particle.
+	 * @param baseVy The y velocity in m/sec added to each particle.
+	 * @return The slot of the first particle launched, or -1 if none were.  Unless the
+	 * store had to make room for them, the rest follow it in order.
+	 */
+	protected int emit(double from, double to, ParticleStore store, int colour,
+			double baseVx, double baseVy) {
+		int first = -1;
+		if (to <= from || emissionRate == 0)
+			return first;
+		double due = owed + emissionRate * (to - from);
+		int count = (int) due;
+		double posX = getX();
+		double posY = getY();
+		EmitterBurstEvent event = new EmitterBurstEvent();
+		event.begin();
+		for (int i = 0; i < count; i++) {
+			// The particle falls due when the number owed reaches i + 1.
+			double birthTime = from + (i + 1 - owed) / emissionRate;
+			double age = to - birthTime;			// sec
+			double angle = getRandomLaunchAngle();
+			double variableExitVelocity = getRandomExitVelocity();
+			double velX = variableExitVelocity * Math.sin(angle);
+			double velY = variableExitVelocity * Math.cos(angle);
+			int slot = store.add(launchType, colour, posX + velX * age, posY + velY * age,
+					baseVx + velX, baseVy + velY, birthTime);
+			if (first < 0)
+				first = slot;
+		}
+		owed = due - count;
+		commitBurst(event, count);
+		return first;
+	} // end emit
+
+	// Records a burst of the supplied number of particles, if the event is enabled.
+	private void commitBurst(EmitterBurstEvent event, int count) {
+		// The event is only filled in if it is to be recorded.
+		if (event.shouldCommit()) {
+			event.emitter = name;
+			event.count = count;
+			event.kind = launchType.getKind();
+			event.commit();
+		}
+	} // end commitBurst
+
 } // end Emitter class
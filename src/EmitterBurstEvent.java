@@ -0,0 +1,33 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one launch of particles by an Emitter or MobileEmitter.
+ * Its duration is the time taken to add the particles to the ParticleStore.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+@Name("fireworks.EmitterBurst")
+@Label("Emitter Burst")
+@Category("Fireworks")
+@Description("One launch of particles by an emitter")
+@StackTrace(false)
+public class EmitterBurstEvent extends Event {
+
+	@Label("Emitter")
+	@Description("The name of the emitter")
+	String emitter;
+
+	@Label("Count")
+	@Description("The number of particles launched")
+	int count;
+
+	@Label("Kind")
+	@Description("The kind of particle launched: 0 for sparks, 1 for streaks, 2 for stars")
+	int kind;
+
+} // end EmitterBurstEvent class
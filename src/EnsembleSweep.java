@@ -0,0 +1,149 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the debris envelope of the show over the whole range of conditions allowed: wind
+ * velocities from -20 to 20 km/hour and launch angles from -15 to 15 degrees.  For each
+ * point of a grid over that range, a number of headless shows with different seeds are
+ * run, each as its own work item on a pool with one thread per core.  Every frame of a
+ * show is looked at as it is made and only summaries are kept: where particles land,
+ * the highest any particle goes and the furthest any lands to either side.  No particles
+ * are kept, so memory does not grow with the size of the sweep.  Where nothing landed,
+ * the landing positions are shown as "none".  Particles are only retired
+ * once they are below the ground, so that debris far off the canvas is still followed.
+ * Usage: java EnsembleSweep [wind step km/hour] [angle step degrees] [seeds per point]
+ * [time step seconds] [threads]
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class EnsembleSweep {
+
+	private static final double MAX_WIND = 20;			// km/hour
+	private static final double MAX_ANGLE = 15;			// degrees
+	private static final double DEFAULT_WIND_STEP = 5;	// km/hour
+	private static final double DEFAULT_ANGLE_STEP = 5;	// degrees
+	private static final int DEFAULT_SEEDS = 16;
+	private static final double LANDING_RANGE = 50;		// metres either side of the tube
+	private static final int LANDING_BINS = 200;
+	private static final long BASE_SEED = 2024;
+	private static final WorldBounds GROUND_ONLY = new WorldBounds(Double.NEGATIVE_INFINITY,
+			Double.POSITIVE_INFINITY, 0, Double.POSITIVE_INFINITY, false);
+
+	// The summary of every show run at one grid point.
+	private static class Envelope {
+		private final double wind;				// km/hour
+		private final double angle;				// degrees
+		private final Histogram landing = new Histogram(-LANDING_RANGE, LANDING_RANGE, LANDING_BINS);
+		private int runs = 0;
+		private double maxAltitude = 0;			// metres
+		private double minX = Double.POSITIVE_INFINITY;	// metres, the furthest landing to the left
+		private double maxX = Double.NEGATIVE_INFINITY;	// metres, the furthest landing to the right
+
+		private Envelope(double wind, double angle) {
+			this.wind = wind;
+			this.angle = angle;
+		} // end Constructor
+
+		// Adds the summary of another show.
+		private synchronized void merge(Envelope run) {
+			landing.merge(run.landing);
+			runs += run.runs;
+			maxAltitude = Math.max(maxAltitude, run.maxAltitude);
+			minX = Math.min(minX, run.minX);
+			maxX = Math.max(maxX, run.maxX);
+		} // end merge
+
+		// Formats a landing position, or returns "none" if no particle has landed.
+		private String landed(String format, double x) {
+			return landing.getTotal() == 0 ? "none" : String.format(format, x);
+		} // end landed
+	} // end Envelope class
+
+	public static void main(String[] args) throws InterruptedException {
+		double windStep = args.length > 0 ? Double.parseDouble(args[0]) : DEFAULT_WIND_STEP;
+		double angleStep = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_ANGLE_STEP;
+		int seeds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SEEDS;
+		double timeStep = args.length > 3 ? Double.parseDouble(args[3]) : SimulationThread.TIME_STEP;
+		int threads = args.length > 4 ? Integer.parseInt(args[4])
+				: Runtime.getRuntime().availableProcessors();
+
+		int numWinds = (int) Math.floor(2 * MAX_WIND / windStep + 1e-9) + 1;
+		int numAngles = (int) Math.floor(2 * MAX_ANGLE / angleStep + 1e-9) + 1;
+		Envelope[] envelopes = new Envelope[numWinds * numAngles];
+		SplittableRandom seedRandom = new SplittableRandom(BASE_SEED);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		for (int w = 0; w < numWinds; w++)
+			for (int a = 0; a < numAngles; a++) {
+				Envelope envelope = new Envelope(-MAX_WIND + w * windStep, -MAX_ANGLE + a * angleStep);
+				envelopes[w * numAngles + a] = envelope;
+				for (int run = 0; run < seeds; run++) {
+					long seed = seedRandom.nextLong();
+					pool.execute(() -> envelope.merge(runShow(envelope.wind, envelope.angle, seed, timeStep)));
+				}
+			}
+		pool.shutdown();
+		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		double seconds = (System.nanoTime() - start) / 1.0e9;
+
+		Envelope all = new Envelope(0, 0);
+		System.out.printf("%8s %8s %6s %10s %10s %10s %10s %10s%n", "wind", "angle", "runs",
+				"altitude", "left", "right", "land 1%", "land 99%");
+		for (Envelope envelope : envelopes) {
+			all.merge(envelope);
+			System.out.printf("%8.1f %8.1f %6d %10.2f %10s %10s %10s %10s%n",
+					envelope.wind, envelope.angle, envelope.runs, envelope.maxAltitude,
+					envelope.landed("%.2f", envelope.minX), envelope.landed("%.2f", envelope.maxX),
+					envelope.landed("%.1f", envelope.landing.getQuantile(0.01)),
+					envelope.landed("%.1f", envelope.landing.getQuantile(0.99)));
+		}
+		System.out.printf("All %d shows: altitude %.2f m, landed from %s to %s m, %d particles landed, "
+				+ "99%% within %s to %s m%n", all.runs, all.maxAltitude, all.landed("%.2f", all.minX),
+				all.landed("%.2f", all.maxX), all.landing.getTotal(),
+				all.landed("%.1f", all.landing.getQuantile(0.005)),
+				all.landed("%.1f", all.landing.getQuantile(0.995)));
+		System.out.printf("%.1f s on %d threads, %.1f shows/s%n", seconds, threads, all.runs / seconds);
+	} // end main
+
+	// Runs one show to the end and summarizes it.
+	private static Envelope runShow(double wind, double angle, long seed, double timeStep) {
+		Envelope envelope = new Envelope(wind, angle);
+		ParticleManager manager;
+		try {
+			manager = new ParticleManager(wind, angle, seed);
+			manager.start(0);
+		} catch (EnvironmentException except) {
+			System.out.println(except.getMessage());
+			return envelope;
+		} catch (EmitterException except) {
+			System.out.println(except.getMessage());
+			return envelope;
+		}
+		manager.setWorldBounds(GROUND_ONLY);
+		double time = 0;
+		while (!manager.isFinished()) {
+			time += timeStep;
+			manager.step(time);
+			FrameSnapshot snapshot = manager.getSnapshot();
+			for (int index = 0; index < snapshot.size(); index++) {
+				double y = snapshot.getY(index);
+				envelope.maxAltitude = Math.max(envelope.maxAltitude, y);
+				// A particle lands in the step in which it goes below the ground.
+				double previousY = snapshot.getPreviousY(index);
+				if (y < 0 && previousY >= 0) {
+					double x = snapshot.getX(index);
+					double previousX = snapshot.getPreviousX(index);
+					double landingX = previousX + (x - previousX) * previousY / (previousY - y);
+					envelope.landing.add(landingX);
+					envelope.minX = Math.min(envelope.minX, landingX);
+					envelope.maxX = Math.max(envelope.maxX, landingX);
+				}
+			}
+		}
+		envelope.runs = 1;
+		return envelope;
+	} // end runShow
+
+} // end EnsembleSweep class
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+
+/**
+ * A timing wheel that records when each particle in a ParticleStore reaches the end of
+ * its lifetime.  Time is divided into ticks, and each particle is placed in the bucket for
+ * the tick in which it expires.  Retiring particles then only visits the buckets whose
+ * ticks have arrived, so the cost is proportional to the number of particles that die
+ * rather than to the number alive.  The wheel wraps around, so a particle that lives
+ * longer than the wheel covers is simply passed over until its turn comes around again.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ExpiryWheel {
+
+	private static final int INITIAL_BUCKET_SIZE = 16;
+
+	private final double tickLength;	// sec
+	private final long[][] buckets;		// particle handles
+	private final int[] counts;
+	private long nextTick = 0;			// first tick not yet fully retired
+
+	/**
+	 * The ExpiryWheel constructor.
+	 * @param tickLength The length of one tick in seconds.
+	 * @param numBuckets The number of buckets.  The wheel covers tickLength * numBuckets seconds.
+	 */
+	public ExpiryWheel(double tickLength, int numBuckets) {
+		this.tickLength = tickLength;
+		buckets = new long[numBuckets][INITIAL_BUCKET_SIZE];
+		counts = new int[numBuckets];
+	} // end Constructor
+
+	// Returns the tick that contains the supplied time.
+	private long getTick(double time) {
+		return (long)Math.floor(time / tickLength);
+	} // end getTick
+
+	/**
+	 * Records the expiry time of a particle.
+	 * @param handle The handle of the particle, from ParticleStore.getHandle().
+	 * @param expiryTime The absolute time in seconds at which the particle dies.
+	 */
+	public void schedule(long handle, double expiryTime) {
+		long tick = Math.max(getTick(expiryTime), nextTick);
+		int bucket = (int)Math.floorMod(tick, (long)buckets.length);
+		if (counts[bucket] == buckets[bucket].length)
+			buckets[bucket] = Arrays.copyOf(buckets[bucket], counts[bucket] * 2);
+		buckets[bucket][counts[bucket]++] = handle;
+	} // end schedule
+
+	/**
+	 * Removes from the store every scheduled particle that has died by the supplied time.
+	 * Handles of particles that were already removed by other means are discarded.
+	 * @param time The absolute time in seconds.
+	 * @param store The ParticleStore holding the particles.
+	 * @return The number of particles removed.
+	 */
+	public int expire(double time, ParticleStore store) {
+		long currentTick = getTick(time);
+		long firstTick = Math.max(nextTick, currentTick - buckets.length + 1);
+		int removed = 0;
+		for (long tick = firstTick; tick <= currentTick; tick++) {
+			int bucket = (int)Math.floorMod(tick, (long)buckets.length);
+			long[] handles = buckets[bucket];
+			int kept = 0;
+			for (int i = 0; i < counts[bucket]; i++) {
+				int slot = store.slotOfHandle(handles[i]);
+				if (slot < 0)
+					continue;
+				if (store.isAlive(slot, time))
+					handles[kept++] = handles[i];
+				else {
+					store.kill(slot);
+					removed++;
+				}
+			}
+			counts[bucket] = kept;
+		}
+		// The current tick may still hold particles that die later within it.
+		nextTick = Math.max(nextTick, currentTick);
+		return removed;
+	} // end expire
+
+	/**
+	 * Forgets every scheduled particle.
+	 */
+	public void clear() {
+		Arrays.fill(counts, 0);
+	} // end clear
+
+} // end ExpiryWheel class
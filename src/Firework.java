@@ -28,6 +28,18 @@ public class Firework {
 	 */
 	public double[] getPosition() { return position.clone(); }
 
+	/**
+	 * An accessor for the x position, which avoids creating an array.
+	 * @return The x position in metres.
+	 */
+	public double getX() { return position[0]; }
+
+	/**
+	 * An accessor for the y position, which avoids creating an array.
+	 * @return The y position in metres.
+	 */
+	public double getY() { return position[1]; }
+
 	/**
 	 * An accessor for the creation time of a Firework.
 	 * @return The creation time in seconds.
@@ -57,6 +69,26 @@ public class Firework {
 		this.position = position.clone();
 	} // end setPosition
 
+	/**
+	 * A mutator for the position data that avoids creating an array.
+	 * @param posX The x position in metres.
+	 * @param posY The y position in metres.
+	 */
+	public void setPosition(double posX, double posY) {
+		position[0] = posX;
+		position[1] = posY;
+	} // end setPosition
+
+	/**
+	 * Moves the Firework by the supplied distances without creating a new position array.
+	 * @param deltaX The distance to move along x in metres.
+	 * @param deltaY The distance to move along y in metres.
+	 */
+	protected void translate(double deltaX, double deltaY) {
+		position[0] += deltaX;
+		position[1] += deltaY;
+	} // end translate
+
 	/**
 	 * A mutator for the creation time of the Firework.
 	 * @param time The time the Firework was created in seconds.
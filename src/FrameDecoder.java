@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes frames written by a FrameEncoder into FrameSnapshot objects.  It keeps the
+ * quantized positions, origins, kinds and colours of the last frame so that particles
+ * sent as a change in position can be rebuilt.  Until a keyframe has been decoded, other
+ * frames are skipped.  The previous position of a particle that was in the last frame is
+ * its position in that frame; a new particle has no previous position and is given its
+ * current one.  A frame that refers to a particle the last frame did not have cannot be
+ * decoded, and the decoder then waits for the next keyframe.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameDecoder {
+
+	private static final double SCALE = 1.0 / FrameEncoder.POSITION_SCALE;	// metres per unit
+
+	private boolean synced = false;
+	// The quantized state of the particles of the last frame, and of the frame being read.
+	private int[] lastX = new int[0];
+	private int[] lastY = new int[0];
+	private int[] lastOriginX = new int[0];
+	private int[] lastOriginY = new int[0];
+	private int[] lastKindColour = new int[0];
+	private int[] nextX = new int[0];
+	private int[] nextY = new int[0];
+	private int[] nextOriginX = new int[0];
+	private int[] nextOriginY = new int[0];
+	private int[] nextKindColour = new int[0];
+	private IdTable lastIds = new IdTable();
+	private IdTable nextIds = new IdTable();
+
+	/**
+	 * Decodes one frame.  The length that starts each frame must already have been read.
+	 * @param in The ByteBuffer holding the rest of the frame, from its position on.
+	 * @param snapshot The FrameSnapshot to fill.
+	 * @return true if the snapshot was filled, false if the frame was skipped because no
+	 * keyframe has been seen yet.
+	 * @throws IOException If a particle sent as a change in position was not in the last
+	 * frame.
+	 */
+	public boolean decode(ByteBuffer in, FrameSnapshot snapshot) throws IOException {
+		boolean keyframe = in.get() == 1;
+		if (!keyframe && !synced)
+			return false;
+		synced = true;
+		double time = in.getDouble();
+		long frameNumber = VarInt.getSigned(in);
+		int count = (int) VarInt.get(in);
+		ensureCapacity(count);
+		snapshot.begin(frameNumber, time, count);
+		nextIds.reset(count);
+		long id = 0;
+		for (int index = 0; index < count; index++) {
+			long tag = VarInt.get(in);
+			id += VarInt.unzigzag(tag >>> 1);
+			double previousX;
+			double previousY;
+			if ((tag & 1) != 0) {
+				nextKindColour[index] = in.get() & 0xFF;
+				nextX[index] = (int) VarInt.getSigned(in);
+				nextY[index] = (int) VarInt.getSigned(in);
+				nextOriginX[index] = (int) VarInt.getSigned(in);
+				nextOriginY[index] = (int) VarInt.getSigned(in);
+				previousX = nextX[index] * SCALE;
+				previousY = nextY[index] * SCALE;
+			} else {
+				int last = lastIds.get((int) id);
+				if (last < 0) {
+					synced = false;
+					throw new IOException("Particle " + id + " of frame " + frameNumber
+							+ " was not in the last frame");
+				}
+				nextKindColour[index] = lastKindColour[last];
+				nextX[index] = (int) (lastX[last] + VarInt.getSigned(in));
+				nextY[index] = (int) (lastY[last] + VarInt.getSigned(in));
+				nextOriginX[index] = lastOriginX[last];
+				nextOriginY[index] = lastOriginY[last];
+				previousX = lastX[last] * SCALE;
+				previousY = lastY[last] * SCALE;
+			}
+			nextIds.put((int) id, index);
+			snapshot.set(index, nextX[index] * SCALE, nextY[index] * SCALE, previousX, previousY,
+					nextOriginX[index] * SCALE, nextOriginY[index] * SCALE,
+					nextKindColour[index] >> 4, nextKindColour[index] & 0xF, (int) id);
+		}
+		swap();
+		return true;
+	} // end decode
+
+	// Makes the frame just decoded the one that the next frame is decoded against.
+	private void swap() {
+		int[] array = lastX;
+		lastX = nextX;
+		nextX = array;
+		array = lastY;
+		lastY = nextY;
+		nextY = array;
+		array = lastOriginX;
+		lastOriginX = nextOriginX;
+		nextOriginX = array;
+		array = lastOriginY;
+		lastOriginY = nextOriginY;
+		nextOriginY = array;
+		array = lastKindColour;
+		lastKindColour = nextKindColour;
+		nextKindColour = array;
+		IdTable ids = lastIds;
+		lastIds = nextIds;
+		nextIds = ids;
+	} // end swap
+
+	// Makes sure there is room for a frame of the supplied number of particles.
+	private void ensureCapacity(int count) {
+		if (nextX.length < count) {
+			int capacity = Math.max(count, nextX.length * 2);
+			nextX = new int[capacity];
+			nextY = new int[capacity];
+			nextOriginX = new int[capacity];
+			nextOriginY = new int[capacity];
+			nextKindColour = new int[capacity];
+		}
+	} // end ensureCapacity
+
+} // end FrameDecoder class
@@ -0,0 +1,166 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes FrameSnapshot objects for the frame stream, each against the frame before it.
+ * Positions are quantized to 1/POSITION_SCALE metres.  A particle that was in the previous
+ * frame, matched by its id, is sent as the change in its position, which is a byte or two
+ * for each axis; a particle that is new is sent in full with its kind, colour and origin.
+ * A keyframe sends every particle in full, so that a viewer can start from it.
+ * <p>
+ * A frame is an int giving the length of the rest, then a byte that is 1 for a keyframe,
+ * the time as a double, the frame number as a signed VarInt and the particle count as a
+ * VarInt.  Each particle starts with the change in id from the particle before it, zigzag
+ * encoded and shifted left one bit, with the low bit set if the particle is sent in full.
+ * A full particle follows with its kind and colour packed into a byte and its x, y,
+ * origin x and origin y as signed VarInts; any other particle follows with the change in
+ * x and y.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameEncoder {
+
+	/**
+	 * The number of position units per metre.
+	 */
+	public static final int POSITION_SCALE = 256;
+	private static final int FRAME_HEADER_BYTES = 4 + 1 + 8 + 2 * VarInt.MAX_BYTES;
+	private static final int PARTICLE_BYTES = 1 + 5 * VarInt.MAX_BYTES;	// at most
+
+	private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+	// The quantized positions, origins, kinds and colours of the particles of the last frame.
+	private int[] lastX = new int[0];
+	private int[] lastY = new int[0];
+	private int[] lastOriginX = new int[0];
+	private int[] lastOriginY = new int[0];
+	private int[] lastKindColour = new int[0];
+	private int[] nextX = new int[0];
+	private int[] nextY = new int[0];
+	private int[] nextOriginX = new int[0];
+	private int[] nextOriginY = new int[0];
+	private int[] nextKindColour = new int[0];
+	private IdTable lastIds = new IdTable();
+	private IdTable nextIds = new IdTable();
+	private long numFull = 0;
+	private long numDelta = 0;
+
+	/**
+	 * Encodes a frame.  Unless it is a keyframe, the frame can only be decoded by a
+	 * FrameDecoder that has decoded every frame since the last keyframe.
+	 * @param snapshot The FrameSnapshot to encode.
+	 * @param keyframe true to send every particle in full.
+	 * @return A buffer holding the encoded frame, from its position to its limit.  It is
+	 * reused by the next call.
+	 */
+	public ByteBuffer encode(FrameSnapshot snapshot, boolean keyframe) {
+		int count = snapshot.size();
+		ensureCapacity(count);
+		buffer.clear();
+		buffer.putInt(0);		// the length, filled in below
+		buffer.put((byte) (keyframe ? 1 : 0));
+		buffer.putDouble(snapshot.getTime());
+		VarInt.putSigned(buffer, snapshot.getFrameNumber());
+		VarInt.put(buffer, count);
+		nextIds.reset(count);
+		int lastId = 0;
+		for (int index = 0; index < count; index++) {
+			int id = snapshot.getId(index);
+			int x = quantize(snapshot.getX(index));
+			int y = quantize(snapshot.getY(index));
+			int originX = quantize(snapshot.getOriginX(index));
+			int originY = quantize(snapshot.getOriginY(index));
+			int kindColour = snapshot.getKind(index) << 4 | snapshot.getColour(index);
+			int last = keyframe ? -1 : lastIds.get(id);
+			// A recycled id belongs to a different particle, which will differ from the
+			// last one in its previous position, origin, kind or colour.  If it did not,
+			// sending it as a change would still rebuild it exactly.
+			boolean full = last < 0 || lastKindColour[last] != kindColour
+					|| lastOriginX[last] != originX || lastOriginY[last] != originY
+					|| lastX[last] != quantize(snapshot.getPreviousX(index))
+					|| lastY[last] != quantize(snapshot.getPreviousY(index));
+			VarInt.put(buffer, (VarInt.zigzag((long) id - lastId) << 1) | (full ? 1 : 0));
+			if (full) {
+				buffer.put((byte) kindColour);
+				VarInt.putSigned(buffer, x);
+				VarInt.putSigned(buffer, y);
+				VarInt.putSigned(buffer, originX);
+				VarInt.putSigned(buffer, originY);
+				numFull++;
+			} else {
+				VarInt.putSigned(buffer, (long) x - lastX[last]);
+				VarInt.putSigned(buffer, (long) y - lastY[last]);
+				numDelta++;
+			}
+			nextX[index] = x;
+			nextY[index] = y;
+			nextOriginX[index] = originX;
+			nextOriginY[index] = originY;
+			nextKindColour[index] = kindColour;
+			nextIds.put(id, index);
+			lastId = id;
+		}
+		buffer.putInt(0, buffer.position() - 4);
+		buffer.flip();
+		swap();
+		return buffer;
+	} // end encode
+
+	// Makes the frame just encoded the one that the next frame is encoded against.
+	private void swap() {
+		int[] array = lastX;
+		lastX = nextX;
+		nextX = array;
+		array = lastY;
+		lastY = nextY;
+		nextY = array;
+		array = lastOriginX;
+		lastOriginX = nextOriginX;
+		nextOriginX = array;
+		array = lastOriginY;
+		lastOriginY = nextOriginY;
+		nextOriginY = array;
+		array = lastKindColour;
+		lastKindColour = nextKindColour;
+		nextKindColour = array;
+		IdTable ids = lastIds;
+		lastIds = nextIds;
+		nextIds = ids;
+	} // end swap
+
+	// Makes sure there is room for a frame of the supplied number of particles.
+	private void ensureCapacity(int count) {
+		int bytes = FRAME_HEADER_BYTES + count * PARTICLE_BYTES;
+		if (buffer.capacity() < bytes)
+			buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2));
+		if (nextX.length < count) {
+			int capacity = Math.max(count, nextX.length * 2);
+			nextX = new int[capacity];
+			nextY = new int[capacity];
+			nextOriginX = new int[capacity];
+			nextOriginY = new int[capacity];
+			nextKindColour = new int[capacity];
+		}
+	} // end ensureCapacity
+
+	/**
+	 * Converts a position to the nearest position unit.
+	 * @param position The position in metres.
+	 * @return The position in units of 1/POSITION_SCALE metres.
+	 */
+	public static int quantize(double position) {
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE,
+				Math.round(position * POSITION_SCALE)));
+	} // end quantize
+
+	/**
+	 * An accessor for the number of particles sent in full so far.
+	 * @return The number of full particles.
+	 */
+	public long getNumFull() { return numFull; }
+
+	/**
+	 * An accessor for the number of particles sent as a change in position so far.
+	 * @return The number of delta particles.
+	 */
+	public long getNumDelta() { return numDelta; }
+
+} // end FrameEncoder class
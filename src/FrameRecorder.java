@@ -0,0 +1,123 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes FrameSnapshot objects to a binary recording file, so that a show can be replayed
+ * later without running the physics again.  The file starts
+ * with a header of four ints: the magic number, the format version, the number of frames
+ * and the number of position units per metre.  Each frame then holds its time as a double
+ * and its particle count as an int, followed by 17 bytes for each particle: the current,
+ * previous and origin positions as shorts, in units of 1/POSITION_SCALE metres, the kind
+ * and colour packed into one byte, and the id as an int.  Frames are gathered in a direct
+ * buffer and written through the channel in large pieces, so the file only ever holds the
+ * frames written and needs no trimming; the number of frames is written into the header
+ * when it is closed.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameRecorder implements Closeable {
+
+	/**
+	 * The first int of every recording file.
+	 */
+	public static final int MAGIC = 0x46575243;		// "FWRC"
+	/**
+	 * The version of the file format.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * The number of position units per metre.  Positions from -128 to 128 metres are kept
+	 * to within 4 mm, a small part of a pixel on the canvas.
+	 */
+	public static final int POSITION_SCALE = 256;
+	static final int HEADER_BYTES = 16;
+	static final int FRAME_HEADER_BYTES = 12;
+	static final int PARTICLE_BYTES = 17;
+	private static final int PIECE_SIZE = 16 << 20;	// bytes written at a time
+
+	private final FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(PIECE_SIZE);
+	private long pieceStart;		// the file position of the start of the buffer
+	private int numFrames = 0;
+
+	/**
+	 * The FrameRecorder constructor.  Creates the file, or empties it if it exists.
+	 * @param file The path of the recording file.
+	 * @throws IOException If the file cannot be created.
+	 */
+	public FrameRecorder(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(0).putInt(POSITION_SCALE);
+	} // end Constructor
+
+	// Writes the frames gathered in the buffer to the file and empties it.
+	private void writePiece() throws IOException {
+		buffer.flip();
+		long position = pieceStart;
+		while (buffer.hasRemaining())
+			position += channel.write(buffer, position);
+		pieceStart = position;
+		buffer.clear();
+	} // end writePiece
+
+	/**
+	 * Appends a frame to the recording.
+	 * @param snapshot The FrameSnapshot to record.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void record(FrameSnapshot snapshot) throws IOException {
+		int count = snapshot.size();
+		long frameBytes = FRAME_HEADER_BYTES + (long) count * PARTICLE_BYTES;
+		if (buffer.remaining() < frameBytes) {
+			writePiece();
+			if (buffer.capacity() < frameBytes)
+				buffer = ByteBuffer.allocateDirect((int) frameBytes);
+		}
+		buffer.putDouble(snapshot.getTime());
+		buffer.putInt(count);
+		for (int index = 0; index < count; index++) {
+			buffer.putShort(quantize(snapshot.getX(index)));
+			buffer.putShort(quantize(snapshot.getY(index)));
+			buffer.putShort(quantize(snapshot.getPreviousX(index)));
+			buffer.putShort(quantize(snapshot.getPreviousY(index)));
+			buffer.putShort(quantize(snapshot.getOriginX(index)));
+			buffer.putShort(quantize(snapshot.getOriginY(index)));
+			buffer.put((byte) (snapshot.getKind(index) << 4 | snapshot.getColour(index)));
+			buffer.putInt(snapshot.getId(index));
+		}
+		numFrames++;
+	} // end record
+
+	// Converts a position to the nearest unit, clamped to the range of a short.
+	private static short quantize(double position) {
+		long units = Math.round(position * POSITION_SCALE);
+		return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, units));
+	} // end quantize
+
+	/**
+	 * An accessor for the number of frames recorded so far.
+	 * @return The number of frames.
+	 */
+	public int getNumFrames() { return numFrames; }
+
+	/**
+	 * Writes the frames not yet written and the number of frames into the header, and
+	 * closes the file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void close() throws IOException {
+		try {
+			writePiece();
+			channel.write(ByteBuffer.allocate(4).putInt(0, numFrames), 8);
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+	} // end close
+
+} // end FrameRecorder class
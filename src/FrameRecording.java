@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a recording written by a FrameRecorder.  The whole file is mapped read only, the
+ * start of each frame is found once, and frames are then decoded straight from the mapping
+ * into a FrameSnapshot, with no other objects created.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameRecording {
+
+	private final MappedByteBuffer buffer;
+	private final double scale;					// metres per position unit
+	private final int[] frameStart;				// byte offset of each frame
+
+	/**
+	 * The FrameRecording constructor.  Files larger than 2 GB cannot be read.
+	 * @param file The path of the recording file.
+	 * @throws IOException If the file cannot be read or is not a recording.
+	 */
+	public FrameRecording(Path file) throws IOException {
+		long size;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("Recording too large: " + file);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		if (size < FrameRecorder.HEADER_BYTES || buffer.getInt(0) != FrameRecorder.MAGIC)
+			throw new IOException("Not a recording: " + file);
+		if (buffer.getInt(4) != FrameRecorder.VERSION)
+			throw new IOException("Unknown recording version: " + buffer.getInt(4));
+		int numFrames = buffer.getInt(8);
+		if (numFrames < 0)
+			throw new IOException("Bad number of frames: " + numFrames);
+		frameStart = new int[numFrames];
+		scale = 1.0 / buffer.getInt(12);
+		// In long, so that a bad particle count cannot wrap round to an offset in the file.
+		long offset = FrameRecorder.HEADER_BYTES;
+		for (int frame = 0; frame < numFrames; frame++) {
+			if (offset + FrameRecorder.FRAME_HEADER_BYTES > size)
+				throw new IOException("Recording is cut short: " + file);
+			frameStart[frame] = (int) offset;
+			int count = buffer.getInt((int) offset + 8);
+			if (count < 0)
+				throw new IOException("Bad particle count in frame " + frame + ": " + count);
+			offset += FrameRecorder.FRAME_HEADER_BYTES + (long) count * FrameRecorder.PARTICLE_BYTES;
+			if (offset > size)
+				throw new IOException("Recording is cut short: " + file);
+		}
+	} // end Constructor
+
+	/**
+	 * An accessor for the number of frames.
+	 * @return The number of frames in the recording.
+	 */
+	public int getNumFrames() { return frameStart.length; }
+
+	/**
+	 * Returns the time at which a frame was recorded.
+	 * @param frame The number of the frame, from 0.
+	 * @return The absolute time in seconds.
+	 */
+	public double getTime(int frame) {
+		return buffer.getDouble(frameStart[frame]);
+	} // end getTime
+
+	/**
+	 * Decodes a frame into a snapshot.
+	 * @param frame The number of the frame, from 0.
+	 * @param snapshot The FrameSnapshot to fill.  Its frame number becomes the frame number.
+	 */
+	public void read(int frame, FrameSnapshot snapshot) {
+		int offset = frameStart[frame];
+		int count = buffer.getInt(offset + 8);
+		snapshot.begin(frame, buffer.getDouble(offset), count);
+		offset += FrameRecorder.FRAME_HEADER_BYTES;
+		for (int index = 0; index < count; index++) {
+			int kindAndColour = buffer.get(offset + 12) & 0xFF;
+			snapshot.set(index, buffer.getShort(offset) * scale, buffer.getShort(offset + 2) * scale,
+					buffer.getShort(offset + 4) * scale, buffer.getShort(offset + 6) * scale,
+					buffer.getShort(offset + 8) * scale, buffer.getShort(offset + 10) * scale,
+					kindAndColour >> 4, kindAndColour & 0xF, buffer.getInt(offset + 13));
+			offset += FrameRecorder.PARTICLE_BYTES;
+		}
+	} // end read
+
+} // end FrameRecording class
@@ -0,0 +1,29 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for the drawing of one frame on the canvas.  Its duration is
+ * the time taken by the renderer.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+@Name("fireworks.FrameRender")
+@Label("Frame Render")
+@Category("Fireworks")
+@Description("The drawing of one frame")
+@StackTrace(false)
+public class FrameRenderEvent extends Event {
+
+	@Label("Draw Calls")
+	@Description("The number of fill, stroke and image calls made on the canvas")
+	int drawCalls;
+
+	@Label("Particle Count")
+	@Description("The number of particles in the frame")
+	int particleCount;
+
+} // end FrameRenderEvent class
@@ -0,0 +1,262 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a show without JavaFX and publishes its frames to viewers on the local machine.
+ * The show runs on a SimulationThread; the server thread takes each new snapshot, encodes
+ * it once with a FrameEncoder against the frame before it, and writes the same bytes to
+ * every viewer, so that the work per viewer is a single socket write however many
+ * particles there are.  A keyframe is sent every KEYFRAME_INTERVAL frames and whenever a
+ * viewer joins; a new viewer receives nothing until then.  The viewers' sockets are
+ * non-blocking, so a slow viewer never holds up the others: each holds at most the one
+ * frame still being sent to it, and a viewer that has not taken that frame when the next
+ * is ready misses frames until it has, then waits for a keyframe.  A viewer still behind
+ * after MAX_FRAMES_BEHIND frames, or that cannot be written to, is dropped.  When the show
+ * is over the frames still being sent are given a moment to finish and the connections
+ * are closed.
+ * Usage: java FrameServer [port] [wind km/hour] [launch angle degrees] [seed]
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameServer implements Runnable {
+
+	/**
+	 * The port used if none is given.
+	 */
+	public static final int DEFAULT_PORT = 47800;
+	/**
+	 * The most frames between keyframes.
+	 */
+	public static final int KEYFRAME_INTERVAL = 60;
+	/**
+	 * The most frames a viewer may miss in a row before it is dropped.
+	 */
+	public static final int MAX_FRAMES_BEHIND = 60;
+	private static final long POLL_NANOS = 2000000L;	// 2 ms
+	private static final int SEND_BUFFER_BYTES = 256 << 10;
+	private static final long CLOSE_NANOS = 1000000000L;	// 1 s to finish sending at the end
+
+	private final SimulationThread simulation;
+	private final ServerSocketChannel serverChannel;
+	private final FrameEncoder encoder = new FrameEncoder();
+	private final CopyOnWriteArrayList<Viewer> viewers = new CopyOnWriteArrayList<>();
+	// Set when a viewer waits for a keyframe, so that one is sent next.
+	private final AtomicBoolean viewerWaiting = new AtomicBoolean();
+	private volatile boolean running = false;
+	private volatile long numDropped = 0;
+
+	// A connected viewer, the frame still being sent to it, whether it waits for a
+	// keyframe, and how many frames in a row it has missed.
+	private static class Viewer {
+		private final SocketChannel channel;
+		private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+		private boolean waiting = true;
+		private int framesBehind = 0;
+
+		private Viewer(SocketChannel channel) {
+			this.channel = channel;
+			pending.flip();
+		} // end Constructor
+
+		// Writes as much of the pending frame as the socket will take.  Returns true if
+		// all of it has been sent.
+		private boolean flush() throws IOException {
+			if (pending.hasRemaining())
+				channel.write(pending);
+			return !pending.hasRemaining();
+		} // end flush
+
+		// Starts sending a frame, which must follow the last one in full.
+		private void send(ByteBuffer frame) throws IOException {
+			if (pending.capacity() < frame.remaining())
+				pending = ByteBuffer.allocate(Math.max(frame.remaining(), pending.capacity() * 2));
+			pending.clear();
+			pending.put(frame.duplicate());
+			pending.flip();
+			flush();
+		} // end send
+	} // end Viewer class
+
+	/**
+	 * The FrameServer constructor.  Opens the listening socket on the loopback address.
+	 * @param show The Simulation to run and publish.
+	 * @param port The port to listen on.
+	 * @throws IOException If the socket cannot be opened.
+	 */
+	public FrameServer(Simulation show, int port) throws IOException {
+		simulation = new SimulationThread(show);
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+	} // end Constructor
+
+	/**
+	 * Starts the show and a thread that accepts viewers.  Frames are published by run().
+	 */
+	public void start() {
+		running = true;
+		Thread acceptor = new Thread(this::acceptViewers, "viewer acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		simulation.start();
+	} // end start
+
+	// Accepts viewers until the server is closed.
+	private void acceptViewers() {
+		while (running)
+			try {
+				SocketChannel channel = serverChannel.accept();
+				channel.socket().setTcpNoDelay(true);
+				channel.socket().setSendBufferSize(SEND_BUFFER_BYTES);
+				channel.configureBlocking(false);
+				viewers.add(new Viewer(channel));
+				viewerWaiting.set(true);
+			} catch (IOException except) {
+				if (running)
+					System.out.println(except.getMessage());
+			}
+	} // end acceptViewers
+
+	/**
+	 * Publishes frames until the show is over, then closes every connection.
+	 */
+	public void run() {
+		long lastFrame = -1;
+		long numSent = 0;
+		while (!simulation.isFinished()) {
+			FrameSnapshot snapshot = simulation.getSnapshot();
+			if (snapshot.getFrameNumber() == lastFrame) {
+				flushAll();
+				LockSupport.parkNanos(POLL_NANOS);
+				continue;
+			}
+			lastFrame = snapshot.getFrameNumber();
+			// Cleared before the frame is encoded, so a viewer that joins meanwhile still
+			// gets a keyframe next time.
+			boolean joined = viewerWaiting.getAndSet(false);
+			boolean keyframe = numSent++ % KEYFRAME_INTERVAL == 0 || joined;
+			ByteBuffer frame = encoder.encode(snapshot, keyframe);
+			for (Viewer viewer : viewers)
+				try {
+					if (!viewer.flush()) {
+						// Still sending an older frame, so this one is missed.
+						viewer.waiting = true;
+						if (++viewer.framesBehind > MAX_FRAMES_BEHIND)
+							drop(viewer);
+						continue;
+					}
+					viewer.framesBehind = 0;
+					if (viewer.waiting && !keyframe) {
+						viewerWaiting.set(true);
+						continue;
+					}
+					viewer.waiting = false;
+					viewer.send(frame);
+				} catch (IOException except) {
+					drop(viewer);
+				}
+		}
+		long deadline = System.nanoTime() + CLOSE_NANOS;
+		while (!flushAll() && System.nanoTime() < deadline)
+			LockSupport.parkNanos(POLL_NANOS);
+		close();
+	} // end run
+
+	// Writes what it can of the frames still being sent.  Returns true if every frame has
+	// been sent in full.
+	private boolean flushAll() {
+		boolean done = true;
+		for (Viewer viewer : viewers)
+			try {
+				done &= viewer.flush();
+			} catch (IOException except) {
+				drop(viewer);
+			}
+		return done;
+	} // end flushAll
+
+	// Disconnects a viewer.
+	private void drop(Viewer viewer) {
+		if (viewers.remove(viewer) && running)
+			numDropped++;
+		try {
+			viewer.channel.close();
+		} catch (IOException except) {}		// already gone
+	} // end drop
+
+	/**
+	 * Stops the show and closes the listening socket and every connection.
+	 */
+	public void close() {
+		running = false;
+		simulation.stop();
+		for (Viewer viewer : viewers)
+			drop(viewer);
+		try {
+			serverChannel.close();
+		} catch (IOException except) {
+			System.out.println(except.getMessage());
+		}
+	} // end close
+
+	/**
+	 * An accessor for the number of connected viewers.
+	 * @return The number of viewers.
+	 */
+	public int getNumViewers() { return viewers.size(); }
+
+	/**
+	 * An accessor for the number of viewers dropped during the show because they fell
+	 * behind or could not be written to.
+	 * @return The number of viewers dropped.
+	 */
+	public long getNumDropped() { return numDropped; }
+
+	/**
+	 * An accessor for the port the server listens on, which is chosen by the system if
+	 * the server was given port 0.
+	 * @return The port.
+	 */
+	public int getPort() { return serverChannel.socket().getLocalPort(); }
+
+	/**
+	 * An accessor for the encoder, whose counters show how many particles were sent in
+	 * full and how many as a change in position.
+	 * @return The FrameEncoder.
+	 */
+	public FrameEncoder getEncoder() { return encoder; }
+
+	public static void main(String[] args) {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		double wind = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+		double angle = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+		FrameServer server;
+		try {
+			ParticleManager manager = new ParticleManager(wind, angle, seed);
+			manager.start(0);
+			server = new FrameServer(manager, port);
+		} catch (EnvironmentException except) {
+			System.out.println(except.getMessage());
+			return;
+		} catch (EmitterException except) {
+			System.out.println(except.getMessage());
+			return;
+		} catch (IOException except) {
+			System.out.println(except.getMessage());
+			return;
+		}
+		System.out.println("Publishing frames on port " + port);
+		server.start();
+		server.run();
+		System.out.printf("Sent %d particles in full and %d as changes%n",
+				server.getEncoder().getNumFull(), server.getEncoder().getNumDelta());
+	} // end main
+
+} // end FrameServer class
@@ -0,0 +1,187 @@
+/**
+ * A picture of the particles at one moment, handed from the simulation to the drawing
+ * code.  It holds the position, the position one update earlier, the origin, kind, palette
+ * colour index and id of each particle in primitive arrays.  Snapshots are filled by the
+ * ParticleStore and passed on through a SnapshotBuffer.  Once a snapshot has been published
+ * it is not changed until the reader has moved on to a newer one, so the reader can use it
+ * without copying.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameSnapshot {
+
+	private long frameNumber = -1;
+	private double time;			// sec
+	private int size = 0;
+	private double[] x = new double[0];			// metres
+	private double[] y = new double[0];			// metres
+	private double[] previousX = new double[0];	// metres
+	private double[] previousY = new double[0];	// metres
+	private double[] originX = new double[0];	// metres
+	private double[] originY = new double[0];	// metres
+	private int[] kind = new int[0];
+	private int[] colour = new int[0];
+	private int[] id = new int[0];
+
+	/**
+	 * Replaces the contents of the snapshot.  Used by the ParticleStore; the arrays are
+	 * copied and only the first count values of each are used.
+	 * @param frameNumber A number that increases with each new frame.
+	 * @param time The absolute time of the frame in seconds.
+	 * @param count The number of particles.
+	 * @param x The x positions in metres.
+	 * @param y The y positions in metres.
+	 * @param previousX The x positions one update earlier in metres.
+	 * @param previousY The y positions one update earlier in metres.
+	 * @param originX The x origins in metres.
+	 * @param originY The y origins in metres.
+	 * @param kind The kinds, as defined by ParticleStore.
+	 * @param colour The palette colour indices.
+	 * @param id The particle ids.
+	 */
+	void fill(long frameNumber, double time, int count, double[] x, double[] y,
+			double[] previousX, double[] previousY, double[] originX, double[] originY, int[] kind, int[] colour, int[] id) {
+		begin(frameNumber, time, count);
+		put(0, count, x, y, previousX, previousY, originX, originY, kind, colour, id, 0);
+	} // end fill
+
+	/**
+	 * Starts a new frame that will be filled in pieces by put().  Room is made for the
+	 * supplied number of particles; the old contents are not kept.
+	 * @param frameNumber A number that increases with each new frame.
+	 * @param time The absolute time of the frame in seconds.
+	 * @param count The total number of particles.
+	 */
+	void begin(long frameNumber, double time, int count) {
+		if (count > this.x.length) {
+			int capacity = Math.max(count, this.x.length * 2);
+			this.x = new double[capacity];
+			this.y = new double[capacity];
+			this.previousX = new double[capacity];
+			this.previousY = new double[capacity];
+			this.originX = new double[capacity];
+			this.originY = new double[capacity];
+			this.kind = new int[capacity];
+			this.colour = new int[capacity];
+			this.id = new int[capacity];
+		}
+		this.frameNumber = frameNumber;
+		this.time = time;
+		size = count;
+	} // end begin
+
+	/**
+	 * Copies particles into the snapshot from position "offset" on.  Pieces that do not
+	 * overlap may be put from different threads at once.
+	 * @param offset The position of the first particle copied.
+	 * @param count The number of particles copied.
+	 * @param x The x positions in metres.
+	 * @param y The y positions in metres.
+	 * @param previousX The x positions one update earlier in metres.
+	 * @param previousY The y positions one update earlier in metres.
+	 * @param originX The x origins in metres.
+	 * @param originY The y origins in metres.
+	 * @param kind The kinds, as defined by ParticleStore.
+	 * @param colour The palette colour indices.
+	 * @param id The particle ids.
+	 * @param idBase A value added to every id, so that ids from different stores differ.
+	 */
+	void put(int offset, int count, double[] x, double[] y, double[] previousX,
+			double[] previousY, double[] originX, double[] originY, int[] kind, int[] colour,
+			int[] id, int idBase) {
+		System.arraycopy(x, 0, this.x, offset, count);
+		System.arraycopy(y, 0, this.y, offset, count);
+		System.arraycopy(previousX, 0, this.previousX, offset, count);
+		System.arraycopy(previousY, 0, this.previousY, offset, count);
+		System.arraycopy(originX, 0, this.originX, offset, count);
+		System.arraycopy(originY, 0, this.originY, offset, count);
+		System.arraycopy(kind, 0, this.kind, offset, count);
+		System.arraycopy(colour, 0, this.colour, offset, count);
+		for (int index = 0; index < count; index++)
+			this.id[offset + index] = id[index] + idBase;
+	} // end put
+
+	/**
+	 * Replaces one particle of a frame started with begin(), as when a frame is read back
+	 * from a recording.
+	 * @param index The position of the particle.
+	 * @param x The x position in metres.
+	 * @param y The y position in metres.
+	 * @param previousX The x position one update earlier in metres.
+	 * @param previousY The y position one update earlier in metres.
+	 * @param originX The x origin in metres.
+	 * @param originY The y origin in metres.
+	 * @param kind The kind, as defined by ParticleStore.
+	 * @param colour The palette colour index.
+	 * @param id The particle id.
+	 */
+	void set(int index, double x, double y, double previousX, double previousY,
+			double originX, double originY, int kind, int colour, int id) {
+		this.x[index] = x;
+		this.y[index] = y;
+		this.previousX[index] = previousX;
+		this.previousY[index] = previousY;
+		this.originX[index] = originX;
+		this.originY[index] = originY;
+		this.kind[index] = kind;
+		this.colour[index] = colour;
+		this.id[index] = id;
+	} // end set
+
+	/**
+	 * An accessor for the frame number.
+	 * @return A number that increases with each new frame, -1 for an empty snapshot.
+	 */
+	public long getFrameNumber() { return frameNumber; }
+
+	/**
+	 * An accessor for the time of the frame.
+	 * @return The absolute time in seconds.
+	 */
+	public double getTime() { return time; }
+
+	/**
+	 * An accessor for the number of particles.
+	 * @return The number of particles in the snapshot.
+	 */
+	public int size() { return size; }
+
+	public double getPreviousX(int index) { return previousX[index]; }
+
+	public double getPreviousY(int index) { return previousY[index]; }
+
+	public double getX(int index) { return x[index]; }
+
+	public double getY(int index) { return y[index]; }
+
+	/**
+	 * Returns the x position interpolated between the previous and current positions.
+	 * @param index The index of the particle.
+	 * @param alpha 0 for the previous position, 1 for the current one.
+	 * @return The x position in metres.
+	 */
+	public double getX(int index, double alpha) {
+		return previousX[index] + alpha * (x[index] - previousX[index]);
+	} // end getX
+
+	/**
+	 * Returns the y position interpolated between the previous and current positions.
+	 * @param index The index of the particle.
+	 * @param alpha 0 for the previous position, 1 for the current one.
+	 * @return The y position in metres.
+	 */
+	public double getY(int index, double alpha) {
+		return previousY[index] + alpha * (y[index] - previousY[index]);
+	} // end getY
+
+	public double getOriginX(int index) { return originX[index]; }
+
+	public double getOriginY(int index) { return originY[index]; }
+
+	public int getKind(int index) { return kind[index]; }
+
+	public int getColour(int index) { return colour[index]; }
+
+	public int getId(int index) { return id[index]; }
+
+} // end FrameSnapshot class
@@ -0,0 +1,219 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Measures where the time of each frame goes.  A ParticleManager given a FrameTelemetry
+ * times its update, the retirement and emission within it, and the copy into a snapshot,
+ * and after every step counts its live particles of each kind and reads the pressure on
+ * its particle budget; a ShowEngine does the same over all its tubes, timing the update
+ * of the shards as one.  The drawing code times the render.  Times are kept in
+ * LatencyHistogram objects so that rare slow frames are not hidden by an average.  The
+ * bytes allocated by each thread are also counted.  All of this can be read through JMX,
+ * once registered, or drawn over the show.  When no FrameTelemetry is given, nothing is
+ * measured and the only cost is a null check.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameTelemetry implements FrameTelemetryMXBean {
+
+	/**
+	 * The whole update of the particles.
+	 */
+	public static final int UPDATE = 0;
+	/**
+	 * The removal of dead particles and those that left the world.
+	 */
+	public static final int RETIREMENT = 1;
+	/**
+	 * The launch of new particles.
+	 */
+	public static final int EMISSION = 2;
+	/**
+	 * The copy of the particles into a snapshot.
+	 */
+	public static final int SNAPSHOT = 3;
+	/**
+	 * The drawing of a frame.
+	 */
+	public static final int RENDER = 4;
+	private static final int NUM_PHASES = 5;
+	private static final String OBJECT_NAME = "fireworks:type=FrameTelemetry";
+
+	// Null if the JVM cannot count the bytes allocated by a thread.
+	private static final com.sun.management.ThreadMXBean THREADS = getThreads();
+
+	private final LatencyHistogram[] phases = new LatencyHistogram[NUM_PHASES];
+	private final AtomicLong steps = new AtomicLong();
+	private final AtomicLong stepBytes = new AtomicLong();
+	private final AtomicLong renders = new AtomicLong();
+	private final AtomicLong renderBytes = new AtomicLong();
+	private volatile int liveStars;
+	private volatile int liveStreaks;
+	private volatile int liveSparks;
+	private volatile double budgetPressure;
+	private volatile long sparksThrottled;
+	private volatile long sparksEvicted;
+
+	/**
+	 * The FrameTelemetry constructor.
+	 */
+	public FrameTelemetry() {
+		for (int phase = 0; phase < NUM_PHASES; phase++)
+			phases[phase] = new LatencyHistogram();
+	} // end Constructor
+
+	// Returns the bean that counts the bytes allocated by each thread, if there is one.
+	private static com.sun.management.ThreadMXBean getThreads() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean))
+			return null;
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean)threads;
+		if (!allocations.isThreadAllocatedMemorySupported())
+			return null;
+		allocations.setThreadAllocatedMemoryEnabled(true);
+		return allocations;
+	} // end getThreads
+
+	/**
+	 * Registers this object with the platform MBean server, so that it can be read from a
+	 * JMX console.
+	 * @throws JMException If it cannot be registered, as when another is already there.
+	 */
+	public void register() throws JMException {
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+	} // end register
+
+	/**
+	 * Returns the number of bytes allocated so far by the calling thread.  The difference
+	 * between two calls is the number allocated between them.
+	 * @return The number of bytes, or 0 if the JVM cannot count them.
+	 */
+	public long getAllocatedBytes() {
+		return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	} // end getAllocatedBytes
+
+	/**
+	 * Records the time taken by one part of a frame.
+	 * @param phase UPDATE, RETIREMENT, EMISSION, SNAPSHOT or RENDER.
+	 * @param nanos The time taken in nanoseconds.
+	 */
+	public void record(int phase, long nanos) {
+		phases[phase].record(nanos);
+	} // end record
+
+	/**
+	 * Records the end of a simulation step.  Must be called by the thread that did it.
+	 * @param store The ParticleStore stepped, from which the live particles are counted.
+	 * @param startBytes The value of getAllocatedBytes() at the start of the step.
+	 */
+	public void endStep(ParticleStore store, long startBytes) {
+		endStep(store.getNumOfKind(ParticleStore.STAR), store.getNumOfKind(ParticleStore.STREAK),
+				store.getNumOfKind(ParticleStore.SPARK), store.getBudgetPressure(),
+				store.getNumThrottled(), store.getNumEvicted(), startBytes);
+	} // end endStep
+
+	/**
+	 * Records the end of a simulation step of several stores, as for the tubes of a
+	 * ShowEngine.  The live particles and shed sparks are summed over the stores, and the
+	 * budget pressure is that of the fullest store.  Must be called by the thread that
+	 * called getAllocatedBytes() at the start of the step.
+	 * @param stores The ParticleStore objects stepped.
+	 * @param startBytes The value of getAllocatedBytes() at the start of the step.
+	 */
+	public void endStep(ParticleStore[] stores, long startBytes) {
+		int stars = 0;
+		int streaks = 0;
+		int sparks = 0;
+		double pressure = 0;
+		long throttled = 0;
+		long evicted = 0;
+		for (ParticleStore store : stores) {
+			stars += store.getNumOfKind(ParticleStore.STAR);
+			streaks += store.getNumOfKind(ParticleStore.STREAK);
+			sparks += store.getNumOfKind(ParticleStore.SPARK);
+			pressure = Math.max(pressure, store.getBudgetPressure());
+			throttled += store.getNumThrottled();
+			evicted += store.getNumEvicted();
+		}
+		endStep(stars, streaks, sparks, pressure, throttled, evicted, startBytes);
+	} // end endStep
+
+	// Publishes the counts taken at the end of a step.
+	private void endStep(int stars, int streaks, int sparks, double pressure, long throttled,
+			long evicted, long startBytes) {
+		stepBytes.addAndGet(getAllocatedBytes() - startBytes);
+		steps.incrementAndGet();
+		liveStars = stars;
+		liveStreaks = streaks;
+		liveSparks = sparks;
+		budgetPressure = pressure;
+		sparksThrottled = throttled;
+		sparksEvicted = evicted;
+	} // end endStep
+
+	/**
+	 * Records the drawing of a frame.  Must be called by the thread that drew it.
+	 * @param startNanos The value of System.nanoTime() when the drawing started.
+	 * @param startBytes The value of getAllocatedBytes() when the drawing started.
+	 */
+	public void endRender(long startNanos, long startBytes) {
+		phases[RENDER].record(System.nanoTime() - startNanos);
+		renderBytes.addAndGet(getAllocatedBytes() - startBytes);
+		renders.incrementAndGet();
+	} // end endRender
+
+	public long getSteps() { return steps.get(); }
+
+	public int getLiveStars() { return liveStars; }
+
+	public int getLiveStreaks() { return liveStreaks; }
+
+	public int getLiveSparks() { return liveSparks; }
+
+	public double getBudgetPressure() { return budgetPressure; }
+
+	public long getSparksThrottled() { return sparksThrottled; }
+
+	public long getSparksEvicted() { return sparksEvicted; }
+
+	public LatencySummary getUpdate() { return new LatencySummary(phases[UPDATE]); }
+
+	public LatencySummary getRetirement() { return new LatencySummary(phases[RETIREMENT]); }
+
+	public LatencySummary getEmission() { return new LatencySummary(phases[EMISSION]); }
+
+	public LatencySummary getSnapshot() { return new LatencySummary(phases[SNAPSHOT]); }
+
+	public LatencySummary getRender() { return new LatencySummary(phases[RENDER]); }
+
+	/**
+	 * Returns the LatencyHistogram of one part of a frame.
+	 * @param phase UPDATE, RETIREMENT, EMISSION, SNAPSHOT or RENDER.
+	 * @return The LatencyHistogram, which keeps counting.
+	 */
+	public LatencyHistogram getHistogram(int phase) { return phases[phase]; }
+
+	public double getAllocatedBytesPerStep() {
+		long count = steps.get();
+		return count == 0 ? 0 : (double) stepBytes.get() / count;
+	} // end getAllocatedBytesPerStep
+
+	public double getAllocatedBytesPerRender() {
+		long count = renders.get();
+		return count == 0 ? 0 : (double) renderBytes.get() / count;
+	} // end getAllocatedBytesPerRender
+
+	public void reset() {
+		for (LatencyHistogram phase : phases)
+			phase.reset();
+		steps.set(0);
+		stepBytes.set(0);
+		renders.set(0);
+		renderBytes.set(0);
+	} // end reset
+
+} // end FrameTelemetry class
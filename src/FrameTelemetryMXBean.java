@@ -0,0 +1,99 @@
+/**
+ * The management interface of FrameTelemetry, as seen in a JMX console such as JConsole
+ * under fireworks:type=FrameTelemetry.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public interface FrameTelemetryMXBean {
+
+	/**
+	 * Returns the number of simulation steps measured.
+	 * @return The number of steps since the last reset.
+	 */
+	long getSteps();
+
+	/**
+	 * Returns the number of live stars after the last step.
+	 * @return The number of stars.
+	 */
+	int getLiveStars();
+
+	/**
+	 * Returns the number of live streaks after the last step.
+	 * @return The number of streaks.
+	 */
+	int getLiveStreaks();
+
+	/**
+	 * Returns the number of live sparks after the last step.
+	 * @return The number of sparks.
+	 */
+	int getLiveSparks();
+
+	/**
+	 * Returns how full the particle store was against its budget after the last step.
+	 * @return The number of particles divided by the budget, 0 if there is no budget.
+	 */
+	double getBudgetPressure();
+
+	/**
+	 * Returns the number of sparks refused because the particle budget was reached.
+	 * @return The number of sparks refused.
+	 */
+	long getSparksThrottled();
+
+	/**
+	 * Returns the number of sparks evicted to make room under the particle budget.
+	 * @return The number of sparks evicted.
+	 */
+	long getSparksEvicted();
+
+	/**
+	 * Returns the time taken by each update of the particles, which includes the
+	 * retirement, integration and emission.
+	 * @return A LatencySummary of the update times.
+	 */
+	LatencySummary getUpdate();
+
+	/**
+	 * Returns the time taken to retire dead particles and those that left the world.
+	 * @return A LatencySummary of the retirement times.
+	 */
+	LatencySummary getRetirement();
+
+	/**
+	 * Returns the time taken to launch new particles.
+	 * @return A LatencySummary of the emission times.
+	 */
+	LatencySummary getEmission();
+
+	/**
+	 * Returns the time taken to copy the particles into a snapshot.
+	 * @return A LatencySummary of the snapshot times.
+	 */
+	LatencySummary getSnapshot();
+
+	/**
+	 * Returns the time taken to draw each frame.
+	 * @return A LatencySummary of the render times.
+	 */
+	LatencySummary getRender();
+
+	/**
+	 * Returns the mean number of bytes allocated by the simulation thread in each step.
+	 * @return The mean bytes per step, or 0 if the JVM cannot measure it.
+	 */
+	double getAllocatedBytesPerStep();
+
+	/**
+	 * Returns the mean number of bytes allocated by the drawing thread for each frame.
+	 * @return The mean bytes per frame, or 0 if the JVM cannot measure it.
+	 */
+	double getAllocatedBytesPerRender();
+
+	/**
+	 * Forgets every measurement made so far.
+	 */
+	void reset();
+
+} // end FrameTelemetryMXBean interface
@@ -0,0 +1,142 @@
+import java.util.Arrays;
+
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Draws a FrameSnapshot onto a JavaFX canvas in batches.  The particles are first sorted
+ * into buckets by kind and palette colour, with a counting sort that allocates nothing
+ * once the buffers have grown.  The paint is then set once per bucket and every particle
+ * in the bucket is added to a single path, so each bucket costs one fill or one stroke
+ * no matter how many particles it holds.  Particles wholly outside the canvas are left
+ * out of the paths.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FxCanvasRenderer {
+
+	private static final double SCALE = 19;					// pixels per metre
+	private static final double STAR_DIAMETER = 6;			// pixels
+	private static final double SPARK_DIAMETER = 2;			// pixels
+	private static final double STREAK_WIDTH = 2;			// pixels
+	private static final int NUM_KINDS = 3;
+
+	// The first index in "order" of each bucket, and the particles sorted by bucket.
+	private final int[] bucketStart = new int[NUM_KINDS * Palette.size() + 1];
+	private int[] order = new int[0];
+	private int drawCalls;
+	private int paintChanges;
+	private int numCulled;
+
+	/**
+	 * Draws the particles of a snapshot.  Positions are interpolated between the last two
+	 * steps, and the origin of the world is placed at the middle of the bottom edge.
+	 * @param gc The GraphicsContext to draw on.
+	 * @param fireworks The snapshot to draw.
+	 * @param alpha The position between the last two steps, from 0 to 1.
+	 * @param width The width of the canvas in pixels.
+	 * @param height The height of the canvas in pixels.
+	 */
+	public void draw(GraphicsContext gc, FrameSnapshot fireworks, double alpha,
+			double width, double height) {
+		int count = fireworks.size();
+		sortIntoBuckets(fireworks, count);
+		drawCalls = 0;
+		paintChanges = 0;
+		numCulled = 0;
+		gc.setLineWidth(STREAK_WIDTH);
+		for (int bucket = 0; bucket < bucketStart.length - 1; bucket++) {
+			int start = bucketStart[bucket];
+			int end = bucketStart[bucket + 1];
+			if (start == end)
+				continue;
+			int kind = bucket / Palette.size();
+			gc.beginPath();
+			if (kind == ParticleStore.STREAK) {
+				gc.setStroke(FxPalette.getColour(bucket % Palette.size()));
+				for (int i = start; i < end; i++) {
+					int index = order[i];
+					double x0 = fireworks.getOriginX(index) * SCALE + width / 2;
+					double y0 = height - fireworks.getOriginY(index) * SCALE;
+					double x1 = fireworks.getX(index, alpha) * SCALE + width / 2;
+					double y1 = height - fireworks.getY(index, alpha) * SCALE;
+					if (isOutside(Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1),
+							Math.max(y0, y1), STREAK_WIDTH, width, height)) {
+						numCulled++;
+						continue;
+					}
+					gc.moveTo(x0, y0);
+					gc.lineTo(x1, y1);
+				}
+				gc.stroke();
+			} else {
+				gc.setFill(FxPalette.getColour(bucket % Palette.size()));
+				double radius = (kind == ParticleStore.STAR ? STAR_DIAMETER : SPARK_DIAMETER) / 2;
+				for (int i = start; i < end; i++) {
+					int index = order[i];
+					// Centred so the dot covers the same pixels as fillOval at this corner.
+					double centreX = fireworks.getX(index, alpha) * SCALE + width / 2 + radius;
+					double centreY = height - fireworks.getY(index, alpha) * SCALE + radius;
+					if (isOutside(centreX, centreY, centreX, centreY, radius, width, height)) {
+						numCulled++;
+						continue;
+					}
+					gc.moveTo(centreX + radius, centreY);
+					gc.arc(centreX, centreY, radius, radius, 0, 360);
+				}
+				gc.fill();
+			}
+			paintChanges++;
+			drawCalls++;
+		}
+	} // end draw
+
+	// Returns true if a box, grown by a margin on every side, lies wholly outside the canvas.
+	private static boolean isOutside(double left, double top, double right, double bottom,
+			double margin, double width, double height) {
+		return right + margin < 0 || left - margin > width
+				|| bottom + margin < 0 || top - margin > height;
+	} // end isOutside
+
+	// Fills "order" with the snapshot indices grouped by bucket, and bucketStart with the
+	// first position of each bucket.
+	private void sortIntoBuckets(FrameSnapshot fireworks, int count) {
+		if (order.length < count)
+			order = new int[Math.max(count, order.length * 2)];
+		Arrays.fill(bucketStart, 0);
+		for (int index = 0; index < count; index++)
+			bucketStart[bucketOf(fireworks, index) + 1]++;
+		for (int bucket = 1; bucket < bucketStart.length; bucket++)
+			bucketStart[bucket] += bucketStart[bucket - 1];
+		// Place each index using the start of its bucket, then shift the starts back.
+		for (int index = 0; index < count; index++)
+			order[bucketStart[bucketOf(fireworks, index)]++] = index;
+		for (int bucket = bucketStart.length - 1; bucket > 0; bucket--)
+			bucketStart[bucket] = bucketStart[bucket - 1];
+		bucketStart[0] = 0;
+	} // end sortIntoBuckets
+
+	// Returns the bucket of a particle.
+	private static int bucketOf(FrameSnapshot fireworks, int index) {
+		return fireworks.getKind(index) * Palette.size() + fireworks.getColour(index);
+	} // end bucketOf
+
+	/**
+	 * An accessor for the number of fill and stroke calls issued for the last frame.
+	 * @return The number of draw calls.
+	 */
+	public int getDrawCalls() { return drawCalls; }
+
+	/**
+	 * An accessor for the number of times the paint was set for the last frame.
+	 * @return The number of paint changes.
+	 */
+	public int getPaintChanges() { return paintChanges; }
+
+	/**
+	 * An accessor for the number of particles left out of the last frame because they
+	 * were outside the canvas.
+	 * @return The number of culled particles.
+	 */
+	public int getCulled() { return numCulled; }
+
+} // end FxCanvasRenderer class
@@ -0,0 +1,36 @@
+import javafx.scene.paint.Color;
+
+/**
+ * Converts the colours of the simulation Palette into JavaFX colours.  The conversion is
+ * done once, so drawing only has to look a colour up by its palette index.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FxPalette {
+
+	private static final Color[] COLOURS = new Color[Palette.size()];
+	static {
+		for (int index = 0; index < COLOURS.length; index++)
+			COLOURS[index] = toColor(Palette.getArgb(index));
+	}
+
+	/**
+	 * Converts a 0xAARRGGBB value into a JavaFX colour.
+	 * @param argb The colour.
+	 * @return The JavaFX colour.
+	 */
+	public static Color toColor(int argb) {
+		return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF,
+				((argb >>> 24) & 0xFF) / 255.0);
+	} // end toColor
+
+	/**
+	 * Returns the JavaFX colour that a palette index stands for.
+	 * @param index The palette index.
+	 * @return The colour.
+	 */
+	public static Color getColour(int index) {
+		return COLOURS[index];
+	} // end getColour
+
+} // end FxPalette class
@@ -0,0 +1,52 @@
+import java.nio.IntBuffer;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Draws a FrameSnapshot by rasterizing it on the CPU with a SoftwareRasterizer and
+ * handing the result to JavaFX as a single image.  The rasterizer writes straight into
+ * the IntBuffer behind a PixelBuffer, so no pixels are copied, and the canvas receives
+ * one drawImage call per frame however many particles there are.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FxPixelBufferRenderer {
+
+	private final SoftwareRasterizer rasterizer;
+	private final PixelBuffer<IntBuffer> pixelBuffer;
+	private final WritableImage image;
+
+	/**
+	 * The FxPixelBufferRenderer constructor.
+	 * @param width The width of the canvas in pixels.
+	 * @param height The height of the canvas in pixels.
+	 */
+	public FxPixelBufferRenderer(int width, int height) {
+		int[] pixels = new int[width * height];
+		rasterizer = new SoftwareRasterizer(pixels, width, height);
+		pixelBuffer = new PixelBuffer<>(width, height, IntBuffer.wrap(pixels),
+				PixelFormat.getIntArgbPreInstance());
+		image = new WritableImage(pixelBuffer);
+	} // end Constructor
+
+	/**
+	 * Draws the particles of a snapshot.  Positions are interpolated between the last two
+	 * steps.  Must be called on the JavaFX application thread.
+	 * @param gc The GraphicsContext to draw on.
+	 * @param fireworks The snapshot to draw.
+	 * @param alpha The position between the last two steps, from 0 to 1.
+	 */
+	public void draw(GraphicsContext gc, FrameSnapshot fireworks, double alpha) {
+		// The pixels may only be changed inside the callback, where the render thread will
+		// not read them.  Returning null marks the whole image as changed.
+		pixelBuffer.updateBuffer(buffer -> {
+			rasterizer.render(fireworks, alpha);
+			return null;
+		});
+		gc.drawImage(image, 0, 0);
+	} // end draw
+
+} // end FxPixelBufferRenderer class
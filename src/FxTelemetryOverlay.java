@@ -0,0 +1,65 @@
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws the measurements of a FrameTelemetry in the top left corner of the canvas: the
+ * live particles of each kind, the median, 99th percentile and largest time of each part
+ * of a frame, the bytes allocated per step and per frame, and the pressure on the
+ * particle budget.  The text is only made again every REFRESH_FRAMES frames, so that it
+ * can be read and costs little to draw.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FxTelemetryOverlay {
+
+	private static final int REFRESH_FRAMES = 15;
+	private static final double LINE_HEIGHT = 14;		// pixels
+	private static final String[] PHASE_NAMES = {"update", "retire", "emit", "snapshot", "render"};
+
+	private final FrameTelemetry telemetry;
+	private final String[] lines = new String[PHASE_NAMES.length + 4];
+	private int framesToRefresh = 0;
+
+	/**
+	 * The FxTelemetryOverlay constructor.
+	 * @param telemetry The FrameTelemetry to show.
+	 */
+	public FxTelemetryOverlay(FrameTelemetry telemetry) {
+		this.telemetry = telemetry;
+	} // end Constructor
+
+	/**
+	 * Draws the overlay.  Must be called on the JavaFX application thread, after the frame.
+	 * @param gc The GraphicsContext to draw on.
+	 */
+	public void draw(GraphicsContext gc) {
+		if (framesToRefresh-- <= 0) {
+			refresh();
+			framesToRefresh = REFRESH_FRAMES;
+		}
+		gc.setFill(Color.rgb(0, 0, 0, 0.6));
+		gc.fillRect(4, 4, 330, LINE_HEIGHT * lines.length + 6);
+		gc.setFill(Color.WHITE);
+		for (int line = 0; line < lines.length; line++)
+			gc.fillText(lines[line], 8, 4 + LINE_HEIGHT * (line + 1));
+	} // end draw
+
+	// Makes the text of the overlay from the latest measurements.
+	private void refresh() {
+		lines[0] = String.format("stars %d  streaks %d  sparks %d", telemetry.getLiveStars(),
+				telemetry.getLiveStreaks(), telemetry.getLiveSparks());
+		lines[1] = String.format("%-9s %9s %9s %9s", "us", "p50", "p99", "max");
+		for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+			LatencyHistogram histogram = telemetry.getHistogram(phase);
+			lines[phase + 2] = String.format("%-9s %9.1f %9.1f %9.1f", PHASE_NAMES[phase],
+					histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+					histogram.getMax() / 1e3);
+		}
+		lines[lines.length - 2] = String.format("allocated B/step %.0f  B/frame %.0f",
+				telemetry.getAllocatedBytesPerStep(), telemetry.getAllocatedBytesPerRender());
+		lines[lines.length - 1] = String.format("budget %.0f%%  throttled %d  evicted %d",
+				100 * telemetry.getBudgetPressure(), telemetry.getSparksThrottled(),
+				telemetry.getSparksEvicted());
+	} // end refresh
+
+} // end FxTelemetryOverlay class
@@ -0,0 +1,101 @@
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a show without JavaFX, as fast as the machine allows, using fixed time steps.
+ * When the show is over the simulated time, the real time taken and the throughput are
+ * reported, along with a checksum of every particle position so that runs with the same
+ * seed can be compared.  Intended for servers and for checking the speed of the simulation.
+ * With more than one tube, a ShowEngine fires that many tubes spread along the ground.
+ * Given the name of a show script file instead, a ShowEngine runs the script.
+ * Usage: java HeadlessMain [wind km/hour] [launch angle degrees] [time step seconds] [seed]
+ * [tubes | script file]
+ * Run with -Dfireworks.record=file to also record every frame for a ReplaySimulation.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class HeadlessMain {
+
+	private static final double DEFAULT_TIME_STEP = SimulationThread.TIME_STEP;	// sec
+	private static final long DEFAULT_SEED = 1;
+	private static final double TUBE_SPREAD = 40;		// metres, from the first tube to the last
+	private static final double TUBE_STAGGER = 0.1;		// sec, between the first stars of tubes
+
+	public static void main(String[] args) {
+		double wind = args.length > 0 ? Double.parseDouble(args[0]) : 0;
+		double angle = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+		double timeStep = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TIME_STEP;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+		String show = args.length > 4 ? args[4] : "1";
+		int numTubes = show.matches("\\d+") ? Integer.parseInt(show) : 0;
+		Simulation manager;
+		try {
+			if (numTubes == 0) {
+				ShowScript script = new ShowScript(new FileReader(show));
+				numTubes = script.getTubes().length;
+				manager = new ShowEngine(wind, script, seed, ForkJoinPool.commonPool());
+			} else if (numTubes > 1) {
+				TubeConfig[] tubes = new TubeConfig[numTubes];
+				for (int index = 0; index < numTubes; index++)
+					tubes[index] = new TubeConfig(-TUBE_SPREAD / 2 + TUBE_SPREAD * index / (numTubes - 1),
+							angle, TUBE_STAGGER * index, ParticleManager.STAR_DELAY_TIME,
+							ParticleManager.STAR_COLOURS);
+				manager = new ShowEngine(wind, tubes, seed);
+			} else {
+				ParticleManager single = new ParticleManager(wind, angle, seed);
+				single.start(0);
+				manager = single;
+			}
+		} catch (EnvironmentException except) {
+			System.out.println(except.getMessage());
+			return;
+		} catch (EmitterException except) {
+			System.out.println(except.getMessage());
+			return;
+		} catch (ShowScriptException except) {
+			System.out.println(except.getMessage());
+			return;
+		} catch (IOException except) {
+			System.out.println(except.getMessage());
+			return;
+		}
+
+		long steps = 0;
+		long particleSteps = 0;
+		int maxParticles = 0;
+		long checksum = 0;
+		double time = 0;
+		String recordFile = System.getProperty("fireworks.record");
+		long start = System.nanoTime();
+		try (FrameRecorder recorder = recordFile == null ? null : new FrameRecorder(Paths.get(recordFile))) {
+			while (!manager.isFinished()) {
+				time += timeStep;
+				manager.step(time);
+				FrameSnapshot snapshot = manager.getSnapshot();
+				int count = snapshot.size();
+				for (int index = 0; index < count; index++)
+					checksum = 31 * checksum + Double.hashCode(snapshot.getX(index))
+							+ Double.hashCode(snapshot.getY(index));
+				if (recorder != null)
+					recorder.record(snapshot);
+				particleSteps += count;
+				maxParticles = Math.max(maxParticles, count);
+				steps++;
+			}
+		} catch (IOException except) {
+			System.out.println(except.getMessage());
+			return;
+		}
+		double seconds = (System.nanoTime() - start) / 1.0e9;
+
+		System.out.printf("Tubes %d%n", numTubes);
+		System.out.printf("Simulated %.2f s in %d steps of %.4f s%n", time, steps, timeStep);
+		System.out.printf("Real time %.3f s (%.1f times real time)%n", seconds, time / seconds);
+		System.out.printf("Peak particles %d, %.0f steps/s, %.0f particle updates/s%n",
+				maxParticles, steps / seconds, particleSteps / seconds);
+		System.out.printf("Seed %d, position checksum %016x%n", seed, checksum);
+	} // end main
+
+} // end HeadlessMain class
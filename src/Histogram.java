@@ -0,0 +1,117 @@
+/**
+ * Counts values in bins of equal width over a fixed range.  Values below or above the
+ * range are counted separately.  Only the counts are kept, so any number of values can be
+ * added in constant memory, and histograms with the same bins can be merged.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class Histogram {
+
+	private final double min;
+	private final double binWidth;
+	private final long[] counts;
+	private long below = 0;
+	private long above = 0;
+
+	/**
+	 * The Histogram constructor.
+	 * @param min The lowest value of the first bin.
+	 * @param max The highest value of the last bin.
+	 * @param numBins The number of bins, must be &gt;= 1.
+	 */
+	public Histogram(double min, double max, int numBins) {
+		this.min = min;
+		binWidth = (max - min) / numBins;
+		counts = new long[numBins];
+	} // end Constructor
+
+	/**
+	 * Counts a value.
+	 * @param value The value.
+	 */
+	public void add(double value) {
+		int bin = (int) Math.floor((value - min) / binWidth);
+		if (bin < 0)
+			below++;
+		else if (bin >= counts.length)
+			above++;
+		else
+			counts[bin]++;
+	} // end add
+
+	/**
+	 * Adds the counts of another histogram with the same bins to this one.
+	 * @param other The Histogram to add.
+	 */
+	public void merge(Histogram other) {
+		for (int bin = 0; bin < counts.length; bin++)
+			counts[bin] += other.counts[bin];
+		below += other.below;
+		above += other.above;
+	} // end merge
+
+	/**
+	 * An accessor for the number of bins.
+	 * @return The number of bins.
+	 */
+	public int getNumBins() { return counts.length; }
+
+	/**
+	 * Returns the lowest value of a bin.
+	 * @param bin The bin, from 0.
+	 * @return The lowest value that falls in the bin.
+	 */
+	public double getBinStart(int bin) {
+		return min + bin * binWidth;
+	} // end getBinStart
+
+	/**
+	 * Returns the count of a bin.
+	 * @param bin The bin, from 0.
+	 * @return The number of values in the bin.
+	 */
+	public long getCount(int bin) { return counts[bin]; }
+
+	/**
+	 * An accessor for the number of values below the range.
+	 * @return The count below the first bin.
+	 */
+	public long getBelow() { return below; }
+
+	/**
+	 * An accessor for the number of values above the range.
+	 * @return The count above the last bin.
+	 */
+	public long getAbove() { return above; }
+
+	/**
+	 * Returns the total number of values counted.
+	 * @return The total count, including those outside the range.
+	 */
+	public long getTotal() {
+		long total = below + above;
+		for (long count : counts)
+			total += count;
+		return total;
+	} // end getTotal
+
+	/**
+	 * Returns the value below which the supplied fraction of the counted values lie, to
+	 * the nearest bin edge.  Values outside the range count as lying at its ends.
+	 * @param fraction A fraction from 0 to 1.
+	 * @return The value in the same units as the values counted.
+	 */
+	public double getQuantile(double fraction) {
+		long target = (long) Math.ceil(fraction * getTotal());
+		long seen = below;
+		if (seen >= target)
+			return min;
+		for (int bin = 0; bin < counts.length; bin++) {
+			seen += counts[bin];
+			if (seen >= target)
+				return getBinStart(bin + 1);
+		}
+		return getBinStart(counts.length);
+	} // end getQuantile
+
+} // end Histogram class
@@ -0,0 +1,67 @@
+/**
+ * Maps particle ids to the positions at which they appear in a frame, for matching the
+ * particles of one frame with those of the next.  It is an open addressing hash table of
+ * ints that is refilled for each frame without clearing: every entry is stamped with the
+ * number of the fill it belongs to, and entries with an old stamp count as empty.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class IdTable {
+
+	private int[] keys = new int[16];
+	private int[] values = new int[16];
+	private int[] stamps = new int[16];
+	private int stamp = 1;
+
+	/**
+	 * Empties the table and makes room for the supplied number of ids.
+	 * @param count The number of ids that will be added.
+	 */
+	public void reset(int count) {
+		if (keys.length < 2 * count) {
+			int capacity = Integer.highestOneBit(Math.max(16, 2 * count - 1)) << 1;
+			keys = new int[capacity];
+			values = new int[capacity];
+			stamps = new int[capacity];
+			stamp = 0;
+		}
+		stamp++;
+	} // end reset
+
+	/**
+	 * Adds an id.  An id already in the table is not added again.
+	 * @param id The particle id.
+	 * @param index The position of the particle in the frame.
+	 */
+	public void put(int id, int index) {
+		int mask = keys.length - 1;
+		for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask)
+			if (stamps[slot] != stamp) {
+				stamps[slot] = stamp;
+				keys[slot] = id;
+				values[slot] = index;
+				return;
+			} else if (keys[slot] == id)
+				return;
+	} // end put
+
+	/**
+	 * Looks an id up.
+	 * @param id The particle id.
+	 * @return The position of the particle in the frame, or -1 if it is not there.
+	 */
+	public int get(int id) {
+		int mask = keys.length - 1;
+		for (int slot = hash(id) & mask; stamps[slot] == stamp; slot = (slot + 1) & mask)
+			if (keys[slot] == id)
+				return values[slot];
+		return -1;
+	} // end get
+
+	// Spreads the bits of an id, since ids are small and close together.
+	private static int hash(int id) {
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	} // end hash
+
+} // end IdTable class
@@ -0,0 +1,110 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in nanoseconds in log-linear buckets, in the manner of an HDR
+ * histogram.  Values below 2^SUB_BUCKET_BITS each have their own bucket; above that each
+ * power of two is split into 2^SUB_BUCKET_BITS buckets of equal width, so every value is
+ * kept to within about 3% of its size, from a few nanoseconds to hours, in a fixed
+ * 15 kB of counts.  Recording is lock free and may be done from one thread while
+ * another reads.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int NUM_BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Counts a value.
+	 * @param nanos The duration in nanoseconds.  Negative values are counted as 0.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0);
+		counts.incrementAndGet(bucketOf(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+		long highest = max.get();
+		while (value > highest && !max.compareAndSet(highest, value))
+			highest = max.get();
+	} // end record
+
+	// Returns the bucket that counts the supplied value.
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	} // end bucketOf
+
+	// Returns the highest value counted by the supplied bucket.
+	private static long highestOf(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		long lowest = (long) (SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	} // end highestOf
+
+	/**
+	 * An accessor for the number of values counted.
+	 * @return The number of values.
+	 */
+	public long getCount() { return count.get(); }
+
+	/**
+	 * An accessor for the largest value counted.
+	 * @return The largest value in nanoseconds, or 0 if none have been counted.
+	 */
+	public long getMax() { return max.get(); }
+
+	/**
+	 * Returns the mean of the values counted.
+	 * @return The mean in nanoseconds, or 0 if none have been counted.
+	 */
+	public double getMean() {
+		long values = count.get();
+		return values == 0 ? 0 : (double) total.get() / values;
+	} // end getMean
+
+	/**
+	 * Returns a value that the supplied fraction of the values counted are at or below.
+	 * The value is the top of the bucket holding it, so it is never too low, and it is
+	 * never more than the largest value counted.
+	 * @param percentile The percentile, from 0 to 100.
+	 * @return The value in nanoseconds, or 0 if none have been counted.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long values = count.get();
+		if (values == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(values * Math.min(percentile, 100) / 100));
+		long seen = 0;
+		for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+			seen += counts.get(bucket);
+			if (seen >= rank)
+				return Math.min(highestOf(bucket), max.get());
+		}
+		return max.get();
+	} // end getValueAtPercentile
+
+	/**
+	 * Forgets every value counted.  Values recorded while this runs may be partly kept.
+	 */
+	public void reset() {
+		for (int bucket = 0; bucket < NUM_BUCKETS; bucket++)
+			counts.set(bucket, 0);
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	} // end reset
+
+} // end LatencyHistogram class
@@ -0,0 +1,74 @@
+/**
+ * A summary of the values counted by a LatencyHistogram at one moment.  It is what the
+ * FrameTelemetryMXBean shows for each part of a frame, where it appears as a composite
+ * value with one item for each accessor.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class LatencySummary {
+
+	private final long count;
+	private final double meanNanos;
+	private final long p50Nanos;
+	private final long p90Nanos;
+	private final long p99Nanos;
+	private final long p999Nanos;
+	private final long maxNanos;
+
+	/**
+	 * The LatencySummary constructor.
+	 * @param histogram The LatencyHistogram to summarize.
+	 */
+	public LatencySummary(LatencyHistogram histogram) {
+		count = histogram.getCount();
+		meanNanos = histogram.getMean();
+		p50Nanos = histogram.getValueAtPercentile(50);
+		p90Nanos = histogram.getValueAtPercentile(90);
+		p99Nanos = histogram.getValueAtPercentile(99);
+		p999Nanos = histogram.getValueAtPercentile(99.9);
+		maxNanos = histogram.getMax();
+	} // end Constructor
+
+	/**
+	 * An accessor for the number of values.
+	 * @return The number of values counted.
+	 */
+	public long getCount() { return count; }
+
+	/**
+	 * An accessor for the mean.
+	 * @return The mean in nanoseconds.
+	 */
+	public double getMeanNanos() { return meanNanos; }
+
+	/**
+	 * An accessor for the median.
+	 * @return The 50th percentile in nanoseconds.
+	 */
+	public long getP50Nanos() { return p50Nanos; }
+
+	/**
+	 * An accessor for the 90th percentile.
+	 * @return The 90th percentile in nanoseconds.
+	 */
+	public long getP90Nanos() { return p90Nanos; }
+
+	/**
+	 * An accessor for the 99th percentile.
+	 * @return The 99th percentile in nanoseconds.
+	 */
+	public long getP99Nanos() { return p99Nanos; }
+
+	/**
+	 * An accessor for the 99.9th percentile.
+	 * @return The 99.9th percentile in nanoseconds.
+	 */
+	public long getP999Nanos() { return p999Nanos; }
+
+	/**
+	 * An accessor for the largest value.
+	 * @return The largest value in nanoseconds.
+	 */
+	public long getMaxNanos() { return maxNanos; }
+
+} // end LatencySummary class
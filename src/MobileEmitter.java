@@ -8,6 +8,8 @@ import java.util.ArrayList;
 public class MobileEmitter extends Emitter {
 
 	private Particle followMe;
+	private ParticleStore followStore;
+	private long followHandle;
 
 	/**
 	 * The constructor for the MobileEmitter object.
@@ -28,6 +30,34 @@ public class MobileEmitter extends Emitter {
 		followMe = mobile;
 	} // end Constructor
 
+	/**
+	 * The constructor for a MobileEmitter that follows a particle held in a ParticleStore.
+	 * @param exitVelocity The exit velocity magnitude of the particles to be emitted in m/sec.
+	 * @param firingAngle The launch angle of the emitter, from the vertical in degrees.
+	 * @param variation The random variation range for the launch angle in degrees.
+	 * @param numToLaunch The number of Particle objects to launch at a time, must be &gt;= 1.
+	 * @param launchType An instance of the Particle to be launched. Acts as a template.
+	 * @param store The ParticleStore holding the particle to follow.
+	 * @param handle The handle of the particle to follow, from ParticleStore.getHandle().
+	 * @throws EmitterException If the two angles are not legal. The firing angle must lie
+	 * between -180 and 180 degrees, and the variation angle between 0 and 180 degrees, inclusive.
+	 */
+	public MobileEmitter(double exitVelocity, double firingAngle, double variation, int numToLaunch,
+			Particle launchType, ParticleStore store, long handle) throws EmitterException {
+		super(new double[2], 0, 0, exitVelocity, firingAngle, variation, numToLaunch, launchType);
+		followStore = store;
+		followHandle = handle;
+	} // end Constructor
+
+	/**
+	 * Returns the slot of the followed particle in its ParticleStore.
+	 * @return The slot, or -1 once the particle has left the store or if this emitter
+	 * follows a Particle object instead.
+	 */
+	public int getFollowedSlot() {
+		return followStore == null ? -1 : followStore.slotOfHandle(followHandle);
+	} // end getFollowedSlot
+
 	/**
 	 * Launches particles at the supplied time.  This emitter is mobile.
 	 * New particles are cloned from the template and then modified so that their starting
@@ -51,4 +81,40 @@ public class MobileEmitter extends Emitter {
 		return particles;
 	} // end launch
 
+	/**
+	 * Launches particles into a ParticleStore from the current position of the followed
+	 * particle, adding its velocity to theirs.  Nothing is launched once the followed
+	 * particle has left the store.
+	 * @param time Time in seconds
+	 * @param store The ParticleStore that receives the new particles.
+	 * @param colour The palette index of the colour of the new particles.
+	 * @return The slot of the first particle launched, or -1 if none were.
+	 */
+	public int launch(double time, ParticleStore store, int colour) {
+		int slot = followStore.slotOfHandle(followHandle);
+		if (slot < 0)
+			return -1;
+		setPosition(followStore.getX(slot), followStore.getY(slot));
+		return launch(time, store, colour, followStore.getVelocityX(slot), followStore.getVelocityY(slot));
+	} // end launch
+
+	/**
+	 * Launches into a ParticleStore the particles due at the emission rate over an
+	 * interval, from the path of the followed particle, adding its velocity to theirs.
+	 * The followed particle is taken to be where it is now at the end of the interval.
+	 * Nothing is launched once the followed particle has left the store.
+	 * @param from The absolute time in seconds of the start of the interval.
+	 * @param to The absolute time in seconds of the end of the interval.
+	 * @param store The ParticleStore that receives the new particles.
+	 * @param colour The palette index of the colour of the new particles.
+	 * @return The slot of the first particle launched, or -1 if none were.
+	 */
+	public int emit(double from, double to, ParticleStore store, int colour) {
+		int slot = followStore.slotOfHandle(followHandle);
+		if (slot < 0)
+			return -1;
+		setPosition(followStore.getX(slot), followStore.getY(slot));
+		return emit(from, to, store, colour, followStore.getVelocityX(slot), followStore.getVelocityY(slot));
+	} // end emit
+
 } // end MobileEmitter
@@ -1,8 +1,11 @@
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
+import java.nio.file.Paths;
 import java.util.ResourceBundle;
 
+import javax.management.JMException;
+
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
@@ -46,8 +49,22 @@ public class MyController {
     @FXML
     private Button exitButton;
 
-    private double startingTime;
     ParticleManager manager = null;
+    SimulationThread simulation = null;
+    FxCanvasRenderer renderer = new FxCanvasRenderer();
+    //run with -Dfireworks.replay=file to play a recording made by HeadlessMain instead of simulating
+    String replayFile = System.getProperty("fireworks.replay");
+    //run with -Dfireworks.connect=host:port to view a show published by a FrameServer
+    String serverAddress = System.getProperty("fireworks.connect");
+    //run with -Dfireworks.renderer=software to rasterize on the CPU instead
+    FxPixelBufferRenderer softwareRenderer = "software".equals(System.getProperty("fireworks.renderer"))
+            ? new FxPixelBufferRenderer(900, 475) : null;
+    //run with -Dfireworks.telemetry=jmx to publish frame timings as an MXBean, or =overlay to also draw them
+    String telemetryMode = System.getProperty("fireworks.telemetry");
+    FrameTelemetry telemetry = telemetryMode != null ? new FrameTelemetry() : null;
+    FxTelemetryOverlay overlay = "overlay".equals(telemetryMode) ? new FxTelemetryOverlay(telemetry) : null;
+    //run with -Dfireworks.budget=N to cap the live particles at N, or N,evict to evict the oldest sparks instead of refusing new ones
+    String budgetSetting = System.getProperty("fireworks.budget");
     //setting up sound file
     AudioClip noise = new AudioClip(new File("launchSound.mp3").toURI().toString());
 
@@ -68,17 +85,65 @@ public class MyController {
 
         angleSlider.valueProperty().addListener((observable, oldVal, newVal) -> angleLabel.setText("Angle (Degrees): " + String.format("%.2f", newVal.doubleValue()))); //adjust slider labels to show value
         windSlider.valueProperty().addListener((observable, oldVal, newVal) -> windLabel.setText("Wind Velocity (Km/h): " + String.format("%.2f", newVal.doubleValue())));
+        //pass slider changes on to a running simulation
+        angleSlider.valueProperty().addListener((observable, oldVal, newVal) -> {
+            if (simulation != null)
+                simulation.setLaunchAngle(newVal.doubleValue());
+        });
+        windSlider.valueProperty().addListener((observable, oldVal, newVal) -> {
+            if (simulation != null)
+                simulation.setWindVelocity(newVal.doubleValue());
+        });
         GraphicsContext gc2 = backCanvas.getGraphicsContext2D(); //backCanvas is only used to display background image
         gc2.drawImage(new Image("background.png"), 0, 0);
+        if (telemetry != null) {
+            try {
+                telemetry.register();
+            } catch (JMException except) {
+                System.out.println(except.getMessage());
+            }
+        }
     } //end initialize
 
     @FXML
     void launch(ActionEvent event) {
-		startingTime = System.currentTimeMillis();
+		if (simulation != null)
+			simulation.stop(); // only one show at a time
 		noise.play(); // play first launch sound
 		try {
-			manager = new ParticleManager(windSlider.getValue(), angleSlider.getValue());
-			manager.start(0);
+			if (serverAddress != null) {
+				String[] parts = serverAddress.split(":");
+				int port;
+				try {
+					port = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : FrameServer.DEFAULT_PORT;
+				} catch (NumberFormatException except) {
+					System.out.println("fireworks.connect: bad port, " + except.getMessage());
+					return;
+				}
+				simulation = new SimulationThread(new RemoteSimulation(parts[0], port));
+			} else if (replayFile != null) {
+				simulation = new SimulationThread(new ReplaySimulation(new FrameRecording(Paths.get(replayFile))));
+			} else {
+				manager = new ParticleManager(windSlider.getValue(), angleSlider.getValue());
+				manager.setTelemetry(telemetry);
+				if (budgetSetting != null) {
+					String[] budgetParts = budgetSetting.split(",");
+					int budget;
+					try {
+						budget = Integer.parseInt(budgetParts[0].trim());
+					} catch (NumberFormatException except) {
+						System.out.println("fireworks.budget: bad number, " + except.getMessage());
+						return;
+					}
+					manager.setParticleBudget(budget,
+							budgetParts.length > 1 && "evict".equals(budgetParts[1].trim()));
+				}
+				manager.start(0);
+				simulation = new SimulationThread(manager);
+			}
+		} catch (IOException except) {
+			System.out.println(except.getMessage());
+			return;
 		} catch (EnvironmentException except) {
 			System.out.println(except.getMessage());
 			return;
@@ -87,28 +152,31 @@ public class MyController {
 			return;
 		}
 
+			simulation.start();
 			timeline.setCycleCount(Timeline.INDEFINITE); //Time line set up
 			timeline.play();
     } //end launch
 
     @FXML
     void exitButtonPress(ActionEvent event) {
+    	if (simulation != null)
+    		simulation.stop();
     	Stage stage = (Stage) exitButton.getScene().getWindow();
     	stage.close();
     }
 
     //draws out the graphics to the canvas
 	private void drawScene() {
-		ArrayList<Particle> fireworks;
+		FrameSnapshot fireworks;
 
 
-		fireworks = manager.getFireworks((System.currentTimeMillis() - startingTime)/1000);
-		if(fireworks.size() == 0) {
+		fireworks = simulation.getSnapshot();
+		if(simulation.isFinished() && fireworks.size() == 0) {
 			timeline.stop();
 		}
+		double alpha = simulation.getInterpolation(fireworks); //position between the last two steps
 
 		GraphicsContext gc = canvas.getGraphicsContext2D();
-		double xPos, yPos, xOrg, yOrg;
 		gc.clearRect(0, 0, 900, 475); //wipe
 		gc.setStroke(Color.BROWN);
 		gc.setLineWidth(10);
@@ -129,26 +197,26 @@ public class MyController {
 		else if(angleSlider.getValue() > 0)
 			gc.strokeLine(450,475,451,465);
 
-		gc.setLineWidth(2); //reset for use in streaks
-
-		for(Particle firework : fireworks){
-			xPos = firework.getPosition()[0] * 19 + canvas.getWidth() / 2;
-			yPos = canvas.getHeight() - firework.getPosition()[1] * 19;
-			gc.setFill(firework.getColour());
-			gc.setStroke(firework.getColour());
-
-			if (firework instanceof BurningParticle){ //star
-				gc.fillOval(xPos, yPos, 6, 6);
-				if(firework.getPosition()[1] <= 1 ){
-					noise.play();
-				}
-			}else if (firework instanceof Streak){ //streak
-				xOrg = ((Streak) firework).getOrigin()[0] * 19 + canvas.getWidth() / 2;
-				yOrg = canvas.getHeight() - ((Streak) firework).getOrigin()[1] * 19;
-				gc.strokeLine(xOrg, yOrg, xPos, yPos);
-
-			}else{ //spark
-				gc.fillOval(xPos, yPos, 2, 2);
+		FrameRenderEvent renderEvent = new FrameRenderEvent();
+		renderEvent.begin();
+		long renderStart = telemetry != null ? System.nanoTime() : 0;
+		long renderBytes = telemetry != null ? telemetry.getAllocatedBytes() : 0;
+		if(softwareRenderer != null)
+			softwareRenderer.draw(gc, fireworks, alpha);
+		else
+			renderer.draw(gc, fireworks, alpha, canvas.getWidth(), canvas.getHeight());
+		if(telemetry != null)
+			telemetry.endRender(renderStart, renderBytes);
+		if(renderEvent.shouldCommit()) {
+			renderEvent.drawCalls = softwareRenderer != null ? 1 : renderer.getDrawCalls(); //the software renderer draws one image
+			renderEvent.particleCount = fireworks.size();
+			renderEvent.commit();
+		}
+		if(overlay != null)
+			overlay.draw(gc);
+		for(int index = 0; index < fireworks.size(); index++){
+			if(fireworks.getKind(index) == ParticleStore.STAR && fireworks.getY(index) <= 1){
+				noise.play();
 			}
 		}
 	} //end drawScene
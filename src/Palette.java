@@ -0,0 +1,93 @@
+/**
+ * The colours used by the simulation.  Particles refer to a colour by its index in this
+ * palette, so the simulation itself does not depend on any drawing toolkit.  Each colour
+ * is stored as an opaque 0xAARRGGBB value that a renderer can convert as it needs.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class Palette {
+
+	/**
+	 * The palette index of aquamarine.
+	 */
+	public static final int AQUAMARINE = 	0;
+	/**
+	 * The palette index of dark khaki.
+	 */
+	public static final int DARKKHAKI = 	1;
+	/**
+	 * The palette index of orange.
+	 */
+	public static final int ORANGE = 		2;
+	/**
+	 * The palette index of red.
+	 */
+	public static final int RED = 			3;
+	/**
+	 * The palette index of yellow.
+	 */
+	public static final int YELLOW = 		4;
+	/**
+	 * The palette index of white.
+	 */
+	public static final int WHITE = 		5;
+	/**
+	 * The palette index of cyan.
+	 */
+	public static final int CYAN = 			6;
+	/**
+	 * The palette index of magenta.
+	 */
+	public static final int MAGENTA = 		7;
+
+	private static final int[] ARGB = {
+		0xFF7FFFD4,		// aquamarine
+		0xFFBDB76B,		// dark khaki
+		0xFFFFA500,		// orange
+		0xFFFF0000,		// red
+		0xFFFFFF00,		// yellow
+		0xFFFFFFFF,		// white
+		0xFF00FFFF,		// cyan
+		0xFFFF00FF		// magenta
+	};
+
+	private static final String[] NAMES = {"AQUAMARINE", "DARKKHAKI", "ORANGE", "RED",
+		"YELLOW", "WHITE", "CYAN", "MAGENTA"};
+
+	/**
+	 * Returns the colour that a palette index stands for.
+	 * @param index The palette index.
+	 * @return The colour as a 0xAARRGGBB value.
+	 */
+	public static int getArgb(int index) {
+		return ARGB[index];
+	} // end getArgb
+
+	/**
+	 * Returns the name of the colour that a palette index stands for.
+	 * @param index The palette index.
+	 * @return The name of the colour, such as "RED".
+	 */
+	public static String getName(int index) {
+		return NAMES[index];
+	} // end getName
+
+	/**
+	 * Returns the palette index of a colour name, such as "RED".  Case is ignored.
+	 * @param name The name of the colour.
+	 * @return The palette index, or -1 if there is no colour with that name.
+	 */
+	public static int indexOf(String name) {
+		for (int index = 0; index < NAMES.length; index++)
+			if (NAMES[index].equalsIgnoreCase(name))
+				return index;
+		return -1;
+	} // end indexOf
+
+	/**
+	 * An accessor for the number of colours in the palette.
+	 * @return The number of colours.
+	 */
+	public static int size() { return ARGB.length; }
+
+} // end Palette class
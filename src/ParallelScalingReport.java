@@ -0,0 +1,88 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A command line tool that reports how the parallel particle update scales with the number
+ * of cores.  A large population of sparks is advanced on ForkJoinPools of increasing size,
+ * and the time per step and the speedup over one core are printed.  Each run is also
+ * checked against the sequential update to confirm the results are identical.
+ * Usage: java ParallelScalingReport [particles] [steps] [threshold]
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ParallelScalingReport {
+
+	private static final int DEFAULT_PARTICLES = 200000;
+	private static final int DEFAULT_STEPS = 200;
+	private static final int DEFAULT_THRESHOLD = 4096;
+	private static final int WARMUP_STEPS = 50;
+	private static final long SEED = 42;
+	private static final double DELTA_TIME = 1.0 / 60;	// sec
+
+	public static void main(String[] args) throws EnvironmentException {
+		int particles = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PARTICLES;
+		int steps = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_STEPS;
+		int threshold = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_THRESHOLD;
+		Environment env = new Environment(10);
+		int maxCores = Runtime.getRuntime().availableProcessors();
+
+		ParticleStore reference = createPopulation(particles);
+		for (int step = 1; step <= steps; step++)
+			reference.updatePositions(0, reference.size(), step * DELTA_TIME, DELTA_TIME, env);
+
+		System.out.printf("%d particles, %d steps, threshold %d%n", particles, steps, threshold);
+		System.out.printf("%6s %12s %10s %10s%n", "cores", "ms/step", "speedup", "identical");
+		double oneCore = 0;
+		for (int cores = 1; cores <= maxCores; cores = nextCoreCount(cores, maxCores)) {
+			ForkJoinPool pool = new ForkJoinPool(cores);
+			ParticleStore warm = createPopulation(particles);
+			for (int step = 1; step <= WARMUP_STEPS; step++)
+				pool.invoke(new ParallelUpdateTask(warm, 0, warm.size(), threshold,
+						step * DELTA_TIME, DELTA_TIME, env));
+			ParticleStore store = createPopulation(particles);
+			long start = System.nanoTime();
+			for (int step = 1; step <= steps; step++)
+				pool.invoke(new ParallelUpdateTask(store, 0, store.size(), threshold,
+						step * DELTA_TIME, DELTA_TIME, env));
+			double msPerStep = (System.nanoTime() - start) / 1.0e6 / steps;
+			pool.shutdown();
+			if (cores == 1)
+				oneCore = msPerStep;
+			System.out.printf("%6d %12.3f %10.2f %10s%n", cores, msPerStep, oneCore / msPerStep,
+					isIdentical(reference, store));
+		}
+	} // end main
+
+	// Doubles the number of cores, finishing with the number available.
+	private static int nextCoreCount(int cores, int maxCores) {
+		if (cores == maxCores)
+			return maxCores + 1;
+		return Math.min(cores * 2, maxCores);
+	} // end nextCoreCount
+
+	// Creates a population of sparks with velocities in all directions.
+	private static ParticleStore createPopulation(int particles) {
+		Random random = new Random(SEED);
+		Particle spark = new Particle(1000, 2.0E-6, 0.0015, Palette.ORANGE);
+		ParticleStore store = new ParticleStore(particles);
+		for (int i = 0; i < particles; i++) {
+			double angle = 2 * Math.PI * random.nextDouble();
+			double speed = 20 * random.nextDouble();
+			store.add(spark, 0, 0, 1, speed * Math.sin(angle), speed * Math.cos(angle), 0);
+		}
+		return store;
+	} // end createPopulation
+
+	// Returns true if the two stores hold exactly the same positions and velocities.
+	private static boolean isIdentical(ParticleStore first, ParticleStore second) {
+		if (first.size() != second.size())
+			return false;
+		for (int slot = 0; slot < first.size(); slot++)
+			if (first.getX(slot) != second.getX(slot) || first.getY(slot) != second.getY(slot) ||
+					first.getVelocityX(slot) != second.getVelocityX(slot) ||
+					first.getVelocityY(slot) != second.getVelocityY(slot))
+				return false;
+		return true;
+	} // end isIdentical
+
+} // end ParallelScalingReport class
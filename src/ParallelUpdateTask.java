@@ -0,0 +1,56 @@
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A fork-join task that updates the positions of a range of particles in a ParticleStore.
+ * The range is split in half until each piece holds no more than the threshold number
+ * of particles, and the pieces are then updated in parallel.  Since each particle is
+ * updated independently of the others, the results are identical to those of a single
+ * call to ParticleStore.updatePositions() over the whole range.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ParallelUpdateTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ParticleStore store;
+	private final int from;
+	private final int to;
+	private final int threshold;
+	private final double time;			// sec
+	private final double deltaTime;		// sec
+	private final Environment env;
+
+	/**
+	 * The ParallelUpdateTask constructor.
+	 * @param store The ParticleStore holding the particles.
+	 * @param from The first slot to update.
+	 * @param to One past the last slot to update.
+	 * @param threshold The largest number of particles updated by a single task, must be &gt;= 1.
+	 * @param time The absolute time in seconds.
+	 * @param deltaTime The time interval in seconds.
+	 * @param env The Environment that supplies the wind velocity.
+	 */
+	public ParallelUpdateTask(ParticleStore store, int from, int to, int threshold,
+			double time, double deltaTime, Environment env) {
+		this.store = store;
+		this.from = from;
+		this.to = to;
+		this.threshold = Math.max(threshold, 1);
+		this.time = time;
+		this.deltaTime = deltaTime;
+		this.env = env;
+	} // end Constructor
+
+	@Override
+	protected void compute() {
+		if (to - from <= threshold) {
+			store.updatePositions(from, to, time, deltaTime, env);
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		invokeAll(new ParallelUpdateTask(store, from, middle, threshold, time, deltaTime, env),
+				new ParallelUpdateTask(store, middle, to, threshold, time, deltaTime, env));
+	} // end compute
+
+} // end ParallelUpdateTask class
@@ -0,0 +1,56 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries changes to the wind velocity and launch angle from the user interface to the
+ * simulation thread without locks.  Each value is held as the bits of a double in an
+ * AtomicLong, with NaN meaning that there is no change waiting.  A newer value simply
+ * replaces an older one that has not been picked up yet.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ParameterChannel {
+
+	private static final long NO_CHANGE = Double.doubleToRawLongBits(Double.NaN);
+
+	private final AtomicLong windVelocity = new AtomicLong(NO_CHANGE);	// km/hour
+	private final AtomicLong launchAngle = new AtomicLong(NO_CHANGE);	// degrees
+
+	/**
+	 * Sends a new wind velocity.  May be called from any thread.
+	 * @param wind The wind velocity in km/hour.
+	 */
+	public void setWindVelocity(double wind) {
+		windVelocity.set(Double.doubleToRawLongBits(wind));
+	} // end setWindVelocity
+
+	/**
+	 * Sends a new launch angle.  May be called from any thread.
+	 * @param firingAngle The angle in degrees.
+	 */
+	public void setLaunchAngle(double firingAngle) {
+		launchAngle.set(Double.doubleToRawLongBits(firingAngle));
+	} // end setLaunchAngle
+
+	/**
+	 * Passes any waiting changes on to the Simulation.  Only the simulation thread
+	 * may call this method.  Illegal values are reported and ignored.
+	 * @param manager The Simulation to change.
+	 */
+	public void applyTo(Simulation manager) {
+		double wind = Double.longBitsToDouble(windVelocity.getAndSet(NO_CHANGE));
+		if (!Double.isNaN(wind))
+			try {
+				manager.setWindVelocity(wind);
+			} catch (EnvironmentException except) {
+				System.out.println(except.getMessage());
+			}
+		double angle = Double.longBitsToDouble(launchAngle.getAndSet(NO_CHANGE));
+		if (!Double.isNaN(angle))
+			try {
+				manager.setLaunchAngle(angle);
+			} catch (EmitterException except) {
+				System.out.println(except.getMessage());
+			}
+	} // end applyTo
+
+} // end ParameterChannel class
@@ -1,11 +1,9 @@
-import javafx.scene.paint.Color;
-
 /**
  * A base class for all particles.
  * @author Jonah Chin
  * @version 2.0
  */
-public class Particle extends Firework implements ODESystem {
+public class Particle extends Firework implements BufferedODESystem {
 
 	private static final double DRAG_COEFF = 0.4;		// unitless
 	private static final int SYSTEM_SIZE = 2;
@@ -14,7 +12,8 @@ public class Particle extends Firework implements ODESystem {
 	private double radius;						// metre
 	private double mass;						// kg
 	private double wind;						// m/sec
-	private Color colour;
+	private int colour;							// palette index
+	private int integrator = ParticleStore.EULER;
 
 	/**
 	 * The Particle constructor.  Used by the clone method.
@@ -24,10 +23,10 @@ public class Particle extends Firework implements ODESystem {
 	 * @param lifetime The lifetime of the particle in seconds.
 	 * @param mass The mass of the particle in kg.
 	 * @param radius The radius of the particle in metres.
-	 * @param colour The colour of the particle.
+	 * @param colour The palette index of the colour of the particle.
 	 */
 	public Particle(double[] initialPosition, double[] initialVelocity,
-			double creationTime, double lifetime, double mass, double radius, Color colour) {
+			double creationTime, double lifetime, double mass, double radius, int colour) {
 		super(initialPosition, creationTime, lifetime);
 		velocity = initialVelocity.clone();
 		this.mass = mass;
@@ -40,9 +39,9 @@ public class Particle extends Firework implements ODESystem {
 	 * @param lifetime The lifetime of the particle in seconds.
 	 * @param mass The mass of the particle in kg.
 	 * @param radius The radius of the particle in metres.
-	 * @param colour The colour of the particle.
+	 * @param colour The palette index of the colour of the particle.
 	 */
-	public Particle(double lifetime, double mass, double radius, Color colour) {
+	public Particle(double lifetime, double mass, double radius, int colour) {
 		super(new double[2], 0, lifetime);
 		velocity = new double[2];
 		this.mass = mass;
@@ -52,9 +51,9 @@ public class Particle extends Firework implements ODESystem {
 
 	/**
 	 * An accessor for the particle colour.
-	 * @return The colour of the particle.
+	 * @return The palette index of the colour of the particle.
 	 */
-	public Color getColour() { return colour; }
+	public int getColour() { return colour; }
 
 	/**
 	 * An accessor for the velocity data.
@@ -100,47 +99,86 @@ public class Particle extends Firework implements ODESystem {
 
 	/**
 	 * A mutator for the colour of the particle.
-	 * @param colour The colour as an instance of the javafx.scene.paing.color class.
+	 * @param colour The palette index of the colour of the particle.
 	 */
-	public void setColour(Color colour) {
+	public void setColour(int colour) {
 		this.colour = colour;
 	} // end setColour
 
 	public int getSystemSize() { return SYSTEM_SIZE; }
 
-	// Returns the velocity magnitude in m/sec, given the two
-	// velocity components.
-	private double getVelocityMag(double vx, double vy) {
-		return Math.sqrt(vx * vx + vy * vy);
-	} // end getVelocityMag
+	/**
+	 * An accessor for the integrator used when this particle is a template for particles
+	 * launched into a ParticleStore.  Plain particles and streaks default to the cheap
+	 * ParticleStore.EULER tier.
+	 * @return ParticleStore.RK4, ADAPTIVE or EULER.
+	 */
+	public int getIntegrator() { return integrator; }
 
-	// Calculates the magnitude of the drag force on the star, given time in
-	// seconds and the two velocity components in m/sec.
-	private double getDragForce(double vx, double vy) {
-		double velocityMag = getVelocityMag(vx, vy);
+	/**
+	 * A mutator for the integrator used for particles launched from this template.
+	 * @param integrator ParticleStore.RK4, ADAPTIVE or EULER.
+	 */
+	public void setIntegrator(int integrator) {
+		this.integrator = integrator;
+	} // end setIntegrator
+
+	/**
+	 * An accessor for the kind of the particle, as used by the ParticleStore.
+	 * @return ParticleStore.SPARK for a plain Particle.
+	 */
+	public int getKind() { return ParticleStore.SPARK; }
+
+	/**
+	 * Returns the part of the drag force that does not depend on velocity, so that the
+	 * drag force magnitude is this value times the velocity magnitude squared.
+	 * @param radius The radius of the particle in metres.
+	 * @return The drag constant in kg/m.
+	 */
+	static double getDragConstant(double radius) {
 		double area = Math.PI * radius * radius;
-		return Environment.DENSITY_AIR * velocityMag * velocityMag * area * DRAG_COEFF / 2;
+		return Environment.DENSITY_AIR * area * DRAG_COEFF / 2;
+	} // end getDragConstant
+
+	// Calculates the magnitude of the drag force on a particle, given the
+	// velocity magnitude in m/sec and the radius in metres.
+	private static double getDragForce(double velocityMag, double radius) {
+		return getDragConstant(radius) * velocityMag * velocityMag;
 	} // end getDragForce
 
-	// This method returns the value of the fx function, given the
-	// two velocity components in m/sec.
-	// The meaning of fx is described in the assignment statement.
-	private double xDE(double vX, double vY) {
+	/**
+	 * Returns the value of the fx function for a particle of the supplied mass and radius.
+	 * The meaning of fx is described in the assignment statement.
+	 * @param vX The x velocity in m/sec.
+	 * @param vY The y velocity in m/sec.
+	 * @param wind The wind velocity in m/sec.
+	 * @param mass The mass in kg.
+	 * @param radius The radius in metres.
+	 * @return The x acceleration in m/sec^2.
+	 */
+	static double xDE(double vX, double vY, double wind, double mass, double radius) {
 		// Use apparent x velocity to calculate drag.
 		double vxa = vX - wind;
-		double velocityMag = getVelocityMag(vxa, vY);
-		double dragForce = getDragForce(vxa, vY);
+		double velocityMag = Math.sqrt(vxa * vxa + vY * vY);
+		double dragForce = getDragForce(velocityMag, radius);
 		return -dragForce * vxa / (mass * velocityMag);
 	} // end xDE
 
-	// This method returns the value of the fy function, given the
-	// two velocity components in m/sec.
-	// The meaning of fy is described in the assignment statement.
-	private double yDE(double vX, double vY) {
+	/**
+	 * Returns the value of the fy function for a particle of the supplied mass and radius.
+	 * The meaning of fy is described in the assignment statement.
+	 * @param vX The x velocity in m/sec.
+	 * @param vY The y velocity in m/sec.
+	 * @param wind The wind velocity in m/sec.
+	 * @param mass The mass in kg.
+	 * @param radius The radius in metres.
+	 * @return The y acceleration in m/sec^2.
+	 */
+	static double yDE(double vX, double vY, double wind, double mass, double radius) {
 		// Use apparent x velocity to calculate drag.
 		double vxa = vX - wind;
-		double velocityMag = getVelocityMag(vxa, vY);
-		double dragForce = getDragForce(vxa, vY);
+		double velocityMag = Math.sqrt(vxa * vxa + vY * vY);
+		double dragForce = getDragForce(velocityMag, radius);
 		return -Environment.G - dragForce * vY / (mass * velocityMag);
 	} // end yDE
 
@@ -148,11 +186,23 @@ public class Particle extends Firework implements ODESystem {
 		double[] functionVal = new double[SYSTEM_SIZE];
 		double vX = values[0];
 		double vY = values[1];
-		functionVal[0] = xDE(vX, vY);
-		functionVal[1] = yDE(vX, vY);
+		functionVal[0] = xDE(vX, vY, wind, mass, radius);
+		functionVal[1] = yDE(vX, vY, wind, mass, radius);
 		return functionVal;
 	} // end getFunction
 
+	public void getState(double[] values) {
+		values[0] = velocity[0];
+		values[1] = velocity[1];
+	} // end getState
+
+	public void getFunction(double time, double[] values, double[] result) {
+		double vX = values[0];
+		double vY = values[1];
+		result[0] = xDE(vX, vY, wind, mass, radius);
+		result[1] = yDE(vX, vY, wind, mass, radius);
+	} // end getFunction
+
 	/**
 	 * A mutator that updates the current position of the particle.
 	 * @param time The absolute time in seconds.
@@ -163,17 +213,8 @@ public class Particle extends Firework implements ODESystem {
 	public void updatePosition(double time, double deltaTime, Environment env) {
 		time = time - getCreationTime();
 		wind = env.getWindVelocity();
-		double[] newValues = RungeKuttaSolver.getNextPoint(this, time, deltaTime);
-		velocity[0] = newValues[0];
-		velocity[1] = newValues[1];
-		double xVelocity = newValues[0];
-		double yVelocity = newValues[1];
-		double[] positions = getPosition();
-		double xPos = positions[0] + xVelocity * deltaTime;
-		double yPos = positions[1] + yVelocity * deltaTime;
-		newValues[0] = xPos;
-		newValues[1] = yPos;
-		setPosition(newValues);
+		RungeKuttaSolver.getNextPoint(this, time, deltaTime, velocity);
+		translate(velocity[0] * deltaTime, velocity[1] * deltaTime);
 	} // end updatePosition
 
 	/**
@@ -182,6 +223,7 @@ public class Particle extends Firework implements ODESystem {
 	public Particle clone() {
 		Particle newParticle = new Particle(getPosition(), velocity,
 				getCreationTime(), getLifetime(), mass, radius, colour);
+		newParticle.setIntegrator(integrator);
 		return newParticle;
 	} // end clone
 
@@ -1,31 +1,41 @@
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import javafx.scene.paint.Color;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * This class manages the simulation.  It launches 8 stars of various colours.
- * The class also manages all the other particle effects: the sparks emitted by the star, the
- * launch sparks and the delay charge sparks.  Many constants are available to alter
- * the way the simulation works.  These can be altered more easily when the simulation
- * can be viewed.
+ * This class manages the simulation of one launch tube.  By default it launches 8 stars
+ * of various colours; a TubeConfig can give it another position, start time and star
+ * sequence, and more stars can be cued with schedule(), so that a ShowEngine can run many
+ * tubes from a show script.  Cues wait in a priority queue and only those that are due
+ * are taken each update.  The class also manages all the other particle effects: the
+ * sparks emitted by the star, the launch sparks and the delay charge sparks.  Stars and
+ * delay charges may overlap, so each star keeps its own spark emitter and each charge its
+ * own burning time.  Many constants are available to alter the way the simulation works.
+ * These can be altered more easily when the simulation can be viewed.
  * @author Jonah Chin
  * @version 2.0
  */
-public class ParticleManager {
+public class ParticleManager implements Simulation {
 
 	// Simulation parameters:
 	// For the Star
 	private static final double STAR_VELOCITY = 		22.0;	// m/sec
 	private static final double STAR_ANGLE_VARIATION = 	2.0;	// degrees
-	private static final double STAR_DELAY_TIME = 		2.8;	// seconds
-	private static final int 	NUM_STARS = 			8;		// Total number to launch
-	private static final Color[] STAR_COLOURS =
-		{Color.AQUAMARINE, Color.DARKKHAKI, Color.ORANGE, Color.RED, Color.YELLOW, Color.WHITE, Color.CYAN, Color.MAGENTA};
+	// The default tube, shared with HeadlessMain for the tubes it spreads along the ground.
+	static final double STAR_DELAY_TIME = 				2.8;	// seconds
+	static final int[] 			STAR_COLOURS = {Palette.AQUAMARINE, Palette.DARKKHAKI, Palette.ORANGE,
+		Palette.RED, Palette.YELLOW, Palette.WHITE, Palette.CYAN, Palette.MAGENTA};
 	private static final double STAR_MASS = 			0.008;	// kg
 	private static final double STAR_BURN_RATE = 		0.003;	// kg/sec
 	private static final double STAR_DENSITY = 			1900.0;	// kg/m^3
 
+	// For the parallel update
+	private static final int	DEFAULT_PARALLEL_THRESHOLD = 4096;	// particles per task
+
 	// For all sparks
-	private static final Color 	SPARK_COLOUR = 			Color.ORANGE;
+	private static final int 	SPARK_COLOUR = 			Palette.ORANGE;
 	private static final double SPARK_RADIUS = 			0.0015;	// metre
 	private static final double SPARK_MASS = 			2.0E-6;	// kg
 
@@ -33,7 +43,7 @@ public class ParticleManager {
 	private static final double STAR_SPARK_VELOCITY = 			3.0;	// m/sec
 	private static final double STAR_SPARK_ANGLE_VARIATION = 	180.0;	// degrees
 	private static final double STAR_SPARK_LIFETIME = 			0.20;	// seconds
-	private static final int 	NUM_LAUNCH_STAR_SPARKS = 		20;
+	private static final double STAR_SPARK_RATE = 				1200.0;	// sparks/sec
 
 	// For launch streaks
 	private static final double STREAK_VELOCITY = 		20.0;	// m/sec
@@ -46,43 +56,97 @@ public class ParticleManager {
 	private static final double DELAY_SPARK_VELOCITY = 			2.2;	// m/sec
 	private static final double DELAY_SPARK_ANGLE_VARIATION = 	90.0;	// degrees
 	private static final double DELAY_SPARK_LIFETIME = 			0.60;	// seconds
-	private static final int 	NUM_LAUNCH_DELAY_SPARKS = 		5;
+	private static final double DELAY_SPARK_RATE = 				300.0;	// sparks/sec
 
-	// This ArrayList will hold all the generated particles.
-	private ArrayList<Particle> fireworks = new ArrayList<>();
+	// This store will hold all the generated particles.
+	private ParticleStore fireworks = new ParticleStore();
+	// Hands snapshots of the particles to the drawing code.
+	private SnapshotBuffer snapshots = new SnapshotBuffer();
+	private long frameNumber = 0;
 	private Environment env;
+	// Every emitter gets a generator split from this one.
+	private SplittableRandom showRandom;
+	private TubeConfig tube;
+
+	// Parallel update settings.  A null pool means that updates are always sequential.
+	private ForkJoinPool pool = null;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	// Particles that leave these bounds for good are retired early.  Null turns this off.
+	private WorldBounds bounds = WorldBounds.CANVAS;
+	private long numRetiredOutOfBounds = 0;
+
+	// Measures each step when not null.
+	private FrameTelemetry telemetry = null;
+
+	// The stars still to be launched, earliest first.
+	private PriorityQueue<ShowEvent> cues = new PriorityQueue<>();
+	private long numCues = 0;
 
 	// Tracking variables
-	private int countStars = 0;
-	private double starLaunchTime;
+	// The lighting times of the delay charges still burning, earliest first.
+	private ArrayDeque<Double> delayCharges = new ArrayDeque<>();
 	private double lastTime;
 	private boolean launchFlag = false;
 
 	// Various template and Emitter variables
-	private BurningParticle theStar;
 	private BurningParticle starTemplate;
 	private Particle starSparkTemplate;
 	private Particle delaySparkTemplate;
 	private Streak streakTemplate;
-	private MobileEmitter starSparkEmitter;
+	// One for each star still alive, following it.
+	private ArrayList<MobileEmitter> starSparkEmitters = new ArrayList<>();
 	private Emitter launchTube;
 	private Emitter delaySparkEmitter;
 	private Emitter streakEmitter;
 
 	/**
-	 * The ParticleManager constructor.  Creates various templates and emitters.
+	 * The ParticleManager constructor.  Creates various templates and emitters.  The show
+	 * is different each time.
 	 * @param windVelocity The wind velocity in m/sec.
 	 * @param launchAngle The launch angle of the Roman candle in degrees off the vertical.
 	 * @throws EnvironmentException If the wind velocity is not between -20 and 20 m/sec.
 	 * @throws EmitterException If the launch angle is not between -15 and 15 degrees.
 	 */
 	public ParticleManager(double windVelocity, double launchAngle) throws EnvironmentException, EmitterException {
+		this(windVelocity, launchAngle, new SplittableRandom().nextLong());
+	} // end Constructor
+
+	/**
+	 * The ParticleManager constructor.  Creates various templates and emitters.  Two
+	 * managers created with the same seed, and given the same times, produce exactly the
+	 * same show.
+	 * @param windVelocity The wind velocity in m/sec.
+	 * @param launchAngle The launch angle of the Roman candle in degrees off the vertical.
+	 * @param seed The seed from which every random variation in the show is derived.
+	 * @throws EnvironmentException If the wind velocity is not between -20 and 20 m/sec.
+	 * @throws EmitterException If the launch angle is not between -15 and 15 degrees.
+	 */
+	public ParticleManager(double windVelocity, double launchAngle, long seed)
+			throws EnvironmentException, EmitterException {
+		this(windVelocity, new TubeConfig(0, launchAngle, 0, STAR_DELAY_TIME, STAR_COLOURS), seed);
+	} // end Constructor
+
+	/**
+	 * The ParticleManager constructor for a configured launch tube.  A cue is scheduled for
+	 * each star of the tube, and each star is launched by the first update at or after
+	 * its cue time.  More cues may be added with schedule().
+	 * @param windVelocity The wind velocity in m/sec.
+	 * @param tube The TubeConfig describing the position and stars of the tube.
+	 * @param seed The seed from which every random variation in the show is derived.
+	 * @throws EnvironmentException If the wind velocity is not between -20 and 20 m/sec.
+	 * @throws EmitterException If the launch angle is not between -15 and 15 degrees.
+	 */
+	public ParticleManager(double windVelocity, TubeConfig tube, long seed)
+			throws EnvironmentException, EmitterException {
+		this.tube = tube;
 		env = new Environment(windVelocity);
+		double launchAngle = tube.getLaunchAngle();
 		double la = Math.PI * launchAngle / 180.0;	// radians
 		double[] position = new double[2];
-		position[0] = Math.sin(la);
+		position[0] = tube.getBaseX() + Math.sin(la);
 		position[1] = Math.cos(la);
-		double launchTubeLifetime = STAR_DELAY_TIME * NUM_STARS;
+		double launchTubeLifetime = tube.getStartTime() + tube.getStarDelayTime() * tube.getNumStars();
 		starTemplate = new BurningParticle(STAR_MASS, STAR_COLOURS[0], STAR_BURN_RATE, STAR_DENSITY);
 		starSparkTemplate = new Particle(STAR_SPARK_LIFETIME, SPARK_MASS, SPARK_RADIUS, STAR_COLOURS[0]);
 		delaySparkTemplate = new Particle(DELAY_SPARK_LIFETIME, SPARK_MASS, SPARK_RADIUS, SPARK_COLOUR);
@@ -90,76 +154,271 @@ public class ParticleManager {
 		launchTube = new Emitter(position, 0, launchTubeLifetime, STAR_VELOCITY,
 				launchAngle, STAR_ANGLE_VARIATION, 1, starTemplate);
 		delaySparkEmitter = new Emitter(position, 0, launchTubeLifetime, DELAY_SPARK_VELOCITY,
-				launchAngle, DELAY_SPARK_ANGLE_VARIATION, NUM_LAUNCH_DELAY_SPARKS, delaySparkTemplate);
+				launchAngle, DELAY_SPARK_ANGLE_VARIATION, 1, delaySparkTemplate);
+		delaySparkEmitter.setEmissionRate(DELAY_SPARK_RATE);
 		streakEmitter = new Emitter(position, 0, launchTubeLifetime, STREAK_VELOCITY,
 				launchAngle, STREAK_ANGLE_VARIATION, NUM_LAUNCH_STREAKS, streakTemplate);
+		showRandom = new SplittableRandom(seed);
+		launchTube.setRandom(showRandom.split());
+		delaySparkEmitter.setRandom(showRandom.split());
+		streakEmitter.setRandom(showRandom.split());
+		launchTube.setName("launch tube");
+		delaySparkEmitter.setName("delay sparks");
+		streakEmitter.setName("streaks");
+		for (int star = 0; star < tube.getNumStars(); star++)
+			schedule(tube.getStartTime() + star * tube.getStarDelayTime(), tube.getStarColour(star));
 		lastTime = 0;
 	} // end Constructor.
 
 	/**
-	 * Launches a single star at the supplied absolute time and adds one set of streaks.
+	 * Adds a cue to launch a star.  Cues may be added in any order; cues for the same
+	 * time are fired in the order they were added.
+	 * @param time The absolute time of the launch in seconds.
+	 * @param colour The palette colour index of the star.
+	 */
+	public void schedule(double time, int colour) {
+		cues.add(new ShowEvent(time, numCues++, 0, colour));
+	} // end schedule
+
+	/**
+	 * Launches the star of the earliest cue at the supplied absolute time, instead of at
+	 * the time of its cue, and adds one set of streaks.  Does nothing if no cues are left.
 	 * @param time The absolute time in seconds.  The first star will be launched at time=0.
 	 * @throws EmitterException If the mobile emitter cannot be created.
 	 */
 	public void start(double time) throws EmitterException {
-		theStar = (BurningParticle)launchTube.launch(time).get(0);
-		starLaunchTime = time;
-		theStar.setColour(STAR_COLOURS[countStars]);
-		fireworks.add(theStar);
-		starSparkTemplate.setColour(theStar.getColour());
-		starSparkEmitter = new MobileEmitter(STAR_SPARK_VELOCITY, 0, STAR_SPARK_ANGLE_VARIATION,
-				NUM_LAUNCH_STAR_SPARKS, starSparkTemplate, theStar);
-		countStars++;
-		fireworks.addAll(streakEmitter.launch(time));
-		launchFlag = true;
+		ShowEvent cue = cues.poll();
+		if (cue != null)
+			launchStar(time, cue.getColour());
 	} // end start method
 
+	// Launches a single star and one set of streaks, and lights the delay charge.
+	private void launchStar(double time, int colour) throws EmitterException {
+		StarLaunchEvent event = new StarLaunchEvent();
+		event.begin();
+		long star = fireworks.getHandle(launchTube.launch(time, fireworks, colour));
+		delayCharges.addLast(time);
+		MobileEmitter starSparkEmitter = new MobileEmitter(STAR_SPARK_VELOCITY, 0,
+				STAR_SPARK_ANGLE_VARIATION, 1, starSparkTemplate, fireworks, star);
+		starSparkEmitter.setEmissionRate(STAR_SPARK_RATE);
+		starSparkEmitter.setRandom(showRandom.split());
+		starSparkEmitter.setName("star sparks");
+		starSparkEmitters.add(starSparkEmitter);
+		streakEmitter.launch(time, fireworks, SPARK_COLOUR);
+		launchFlag = true;
+		if (event.shouldCommit()) {
+			event.showTime = time;
+			event.colour = Palette.getName(colour);
+			event.tubeX = tube.getBaseX();
+			event.commit();
+		}
+	} // end launchStar
+
 	/**
 	 * This method updates the simulation.  "Dead" fireworks are removed and positions
 	 * updated.
 	 * @param time The absolute time in seconds. The simulation was started at time = 0;
 	 */
-	private void update(double time) {
+	void update(double time) {
+		long start = telemetry == null ? 0 : System.nanoTime();
+		double previousTime = lastTime;
 		double deltaTime = time - lastTime;
 		lastTime = time;
-		int index = 0;
-		// Clean out dead fireworks
-		do {
-			if (!fireworks.get(index).isAlive(time))
-				fireworks.remove(index);
-			else
-				index++;
-		} while (fireworks.size() > 0 && index < fireworks.size());
+		// Clean out dead fireworks, and those that can no longer be seen
+		fireworks.removeDead(time);
+		if (bounds != null)
+			numRetiredOutOfBounds += fireworks.removeOutOfBounds(bounds, env.getWindVelocity());
+		if (telemetry != null)
+			telemetry.record(FrameTelemetry.RETIREMENT, System.nanoTime() - start);
 		// Update positions
-		for (Particle fire : fireworks)
-			fire.updatePosition(time, deltaTime, env);
-		// Keep adding delay charge sparks until delay time is past.
-		if (time - starLaunchTime < STAR_DELAY_TIME)
-			fireworks.addAll(delaySparkEmitter.launch(time));
-		else if (countStars < NUM_STARS)
+		if (pool != null && fireworks.size() > parallelThreshold)
+			pool.invoke(new ParallelUpdateTask(fireworks, 0, fireworks.size(), parallelThreshold,
+					time, deltaTime, env));
+		else
+			fireworks.updatePositions(0, fireworks.size(), time, deltaTime, env);
+		long emissionStart = telemetry == null ? 0 : System.nanoTime();
+		// Launch the stars whose cues are due.  Only those cues are taken from the queue.
+		while (!cues.isEmpty() && cues.peek().getTime() <= time)
 			try {
-				start(time);					// Launch another Star
+				launchStar(time, cues.poll().getColour());
 			} catch (EmitterException e1) {}	// Won't get here
-		else
-			return;		// Simulation is over
-		// Add star sparks as long as the Star exists
-		if (theStar.isAlive(time))
-			fireworks.addAll(starSparkEmitter.launch(time));
+		// Keep adding delay charge sparks until delay time is past.  Sparks are launched at
+		// a fixed rate over the part of this step in which each charge burns, so the number
+		// launched does not depend on the length of the step.  Charges are lit in time order
+		// and all burn for the same time, so they burn out in order too.
+		double delayTime = tube.getStarDelayTime();
+		for (double lit : delayCharges)
+			delaySparkEmitter.emit(Math.max(previousTime, lit), Math.min(time, lit + delayTime),
+					fireworks, SPARK_COLOUR);
+		while (!delayCharges.isEmpty() && delayCharges.peekFirst() + delayTime <= time)
+			delayCharges.pollFirst();
+		// Add star sparks as long as each Star exists.  An emitter is dropped once its star dies.
+		for (int index = starSparkEmitters.size() - 1; index >= 0; index--) {
+			MobileEmitter starSparkEmitter = starSparkEmitters.get(index);
+			int starSlot = starSparkEmitter.getFollowedSlot();
+			if (starSlot >= 0 && fireworks.isAlive(starSlot, time))
+				starSparkEmitter.emit(Math.max(previousTime, fireworks.getCreationTime(starSlot)), time,
+						fireworks, fireworks.getColour(starSlot));
+			else
+				starSparkEmitters.remove(index);
+		}
+		if (telemetry != null) {
+			long end = System.nanoTime();
+			telemetry.record(FrameTelemetry.EMISSION, end - emissionStart);
+			telemetry.record(FrameTelemetry.UPDATE, end - start);
+		}
 	} // end update
 
 	/**
-	 * An accessor for the collection of particles.
+	 * Updates the simulation and returns a snapshot of the particles.  The snapshot is not
+	 * a copy and must not be kept after the next call to this method.
 	 * @param time The absolute time in seconds. The simulation started at time = 0.
-	 * @return The collection of particles in an ArrayList.
+	 * @return A FrameSnapshot of the live particles.
 	 */
-	public ArrayList<Particle> getFireworks(double time) {
-		update(time);
-		ArrayList<Particle> copy = new ArrayList<>(fireworks.size());
-		for (Particle firework : fireworks)
-			copy.add(firework.clone());
-		return copy;
+	public FrameSnapshot getFireworks(double time) {
+		step(time);
+		return getSnapshot();
 	} // end getFireworks
 
+	/**
+	 * Updates the simulation to the supplied time and publishes a snapshot of the particles.
+	 * @param time The absolute time in seconds. The simulation started at time = 0.
+	 */
+	public void step(double time) {
+		SimulationStepEvent event = new SimulationStepEvent();
+		event.begin();
+		double deltaTime = time - lastTime;
+		long startBytes = telemetry == null ? 0 : telemetry.getAllocatedBytes();
+		update(time);
+		long start = telemetry == null ? 0 : System.nanoTime();
+		fireworks.writeSnapshot(snapshots.getBack(), frameNumber++, time);
+		snapshots.publish();
+		if (telemetry != null) {
+			telemetry.record(FrameTelemetry.SNAPSHOT, System.nanoTime() - start);
+			telemetry.endStep(fireworks, startBytes);
+		}
+		if (event.shouldCommit()) {
+			event.deltaTime = deltaTime;
+			event.particleCount = fireworks.size();
+			event.commit();
+		}
+	} // end step
+
+	/**
+	 * Returns the newest published snapshot of the particles.  This method may be called
+	 * from a different thread than step(), but always from the same one.  The snapshot
+	 * must not be kept after the next call to this method.
+	 * @return A FrameSnapshot of the live particles.
+	 */
+	public FrameSnapshot getSnapshot() {
+		return snapshots.acquire();
+	} // end getSnapshot
+
+	// Gives a ShowEngine access to the particles of the tube.
+	ParticleStore getStore() { return fireworks; }
+
+	/**
+	 * Returns the number of particles launched into room left by dead particles.
+	 * @return The number of particle pool hits.
+	 */
+	public long getPoolHits() { return fireworks.getPoolHits(); }
+
+	/**
+	 * Returns the number of particles launched that needed new room.
+	 * @return The number of particle pool misses.
+	 */
+	public long getPoolMisses() { return fireworks.getPoolMisses(); }
+
+	/**
+	 * Returns the number of particles retired because they left the world bounds for good.
+	 * @return The number of particles retired before their lifetime ran out.
+	 */
+	public long getRetiredOutOfBounds() { return numRetiredOutOfBounds; }
+
+	/**
+	 * Sets the bounds outside of which particles that cannot come back are retired before
+	 * their lifetime runs out.  By default these are the bounds of the canvas.
+	 * @param bounds The WorldBounds, or null to let every particle live out its lifetime.
+	 */
+	public void setWorldBounds(WorldBounds bounds) {
+		this.bounds = bounds;
+	} // end setWorldBounds
+
+	/**
+	 * Sets a hard limit on the number of live particles, so that the cost of the worst
+	 * frame is bounded.  At the limit, new sparks are refused or take the place of the
+	 * oldest sparks; stars and streaks are always launched.
+	 * @param budget The largest number of particles, or ParticleStore.NO_BUDGET for none.
+	 * @param evictOldest true to evict the oldest sparks for new ones, false to refuse new
+	 * sparks.
+	 */
+	public void setParticleBudget(int budget, boolean evictOldest) {
+		fireworks.setBudget(budget, evictOldest);
+	} // end setParticleBudget
+
+	/**
+	 * Returns how full the store of particles is against its budget.
+	 * @return The number of particles divided by the budget, 0 if there is no budget.
+	 */
+	public double getBudgetPressure() { return fireworks.getBudgetPressure(); }
+
+	/**
+	 * Returns the number of sparks refused, or evicted for new particles, because of the
+	 * particle budget.
+	 * @return The number of sparks shed.
+	 */
+	public long getParticlesShed() { return fireworks.getNumThrottled() + fireworks.getNumEvicted(); }
+
+	/**
+	 * Starts or stops the measurement of each step.  The FrameTelemetry should be given to
+	 * only one ParticleManager, since it counts the live particles of the last one stepped.
+	 * @param telemetry The FrameTelemetry to record into, or null to measure nothing.
+	 */
+	public void setTelemetry(FrameTelemetry telemetry) {
+		this.telemetry = telemetry;
+	} // end setTelemetry
+
+	/**
+	 * Returns true once every cue has fired, the last delay charge has burnt out and every
+	 * particle has died.
+	 * @return true if the simulation is over.
+	 */
+	public boolean isFinished() {
+		return cues.isEmpty() && delayCharges.isEmpty() && fireworks.size() == 0;
+	} // end isFinished
+
+	/**
+	 * Turns on the parallel update of particle positions.  Populations larger than the
+	 * threshold are split into pieces of at most that many particles, which are updated
+	 * on the supplied pool.  Smaller populations are still updated sequentially.  The
+	 * results are the same as for the sequential update.
+	 * @param pool The ForkJoinPool to use, or null to always update sequentially.
+	 * @param threshold The largest number of particles updated by a single task, must be &gt;= 1.
+	 */
+	public void setParallelUpdate(ForkJoinPool pool, int threshold) {
+		this.pool = pool;
+		parallelThreshold = Math.max(threshold, 1);
+	} // end setParallelUpdate
+
+	/**
+	 * Chooses the integrator used for a kind of particle launched from now on, by setting
+	 * it on the templates of that kind.  By default stars use RK4 and sparks and streaks
+	 * the cheaper Euler tier.  Stars may also use the adaptive integrator, which takes
+	 * fewer and larger steps in steady flight while keeping within its stated error.
+	 * @param particleKind ParticleStore.SPARK, STREAK or STAR.
+	 * @param method ParticleStore.RK4, ADAPTIVE or EULER.
+	 */
+	public void setIntegrator(int particleKind, int method) {
+		if (particleKind == ParticleStore.STAR)
+			starTemplate.setIntegrator(method);
+		else if (particleKind == ParticleStore.STREAK)
+			streakTemplate.setIntegrator(method);
+		else {
+			starSparkTemplate.setIntegrator(method);
+			delaySparkTemplate.setIntegrator(method);
+		}
+	} // end setIntegrator
+
 	/**
 	 * Returns a flag used to indicate when a Star has been launched. Intended for use
 	 * with resetLaunchFlag() which resets the flag back to false.
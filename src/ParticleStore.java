@@ -0,0 +1,686 @@
+import java.util.Arrays;
+
+/**
+ * Holds every live particle of the simulation as a structure of arrays.  Each particle
+ * occupies one slot, and its position, velocity, mass, radius, creation time, lifetime,
+ * kind and palette colour index are kept in parallel primitive arrays so that the update
+ * and drawing loops walk memory linearly without creating any objects.
+ * Each particle is also given an id that does not change while it is alive.  Ids are
+ * reused once a particle dies, so a particle that must be followed for a while, such as
+ * a star carrying an emitter, is referred to by a handle that also records which use of
+ * the id it belongs to.
+ * The slots and ids of dead particles are reused for new ones, so once the store has grown
+ * to hold the largest population of a show, adding particles creates no garbage.  The
+ * number of additions served from reused ids (hits) and from new ids (misses) is counted.
+ * A store may be given a particle budget.  Once it holds that many particles, a new spark
+ * is refused, or makes room by evicting the oldest spark, while stars and streaks always
+ * make room by evicting the oldest spark and are kept even if there is none.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ParticleStore {
+
+	/**
+	 * The kind of a plain spark, drawn as a small dot.
+	 */
+	public static final int SPARK = 0;
+	/**
+	 * The kind of a streak, drawn as a line from its origin to its position.
+	 */
+	public static final int STREAK = 1;
+	/**
+	 * The kind of a burning star.
+	 */
+	public static final int STAR = 2;
+	/**
+	 * The budget of a store that may hold any number of particles.
+	 */
+	public static final int NO_BUDGET = Integer.MAX_VALUE;
+
+	/**
+	 * The integrator that advances particles with the BatchRungeKuttaSolver.
+	 */
+	public static final int RK4 = 0;
+	/**
+	 * The integrator that advances each particle with its own DormandPrinceSolver.
+	 */
+	public static final int ADAPTIVE = 1;
+	/**
+	 * The integrator that advances particles with the BatchEulerSolver.
+	 */
+	public static final int EULER = 2;
+	private static final int NUM_INTEGRATORS = 3;
+	private static final int NUM_KINDS = 3;
+
+	private static final int INITIAL_CAPACITY = 256;
+	private static final double EXPIRY_TICK = 1.0 / 64;	// sec
+	private static final int EXPIRY_BUCKETS = 256;
+
+	private int size = 0;
+	private double[] x;					// metres
+	private double[] y;					// metres
+	private double[] vx;				// m/sec
+	private double[] vy;				// m/sec
+	private double[] originX;			// metres
+	private double[] originY;			// metres
+	private double[] previousX;			// metres, before the last update
+	private double[] previousY;			// metres, before the last update
+	private double[] mass;				// kg
+	private double[] radius;			// metres
+	private double[] creationTime;		// sec
+	private double[] lifetime;			// sec
+	private double[] startingMass;		// kg
+	private double[] burnRate;			// kg/sec
+	private double[] density;			// kg/m^3
+	private int[] kind;
+	private int[] colour;
+	private int[] id;
+	private int[] integrator;
+	private AdaptiveTrajectory[] trajectory;	// created on the first update
+
+	// Maps a particle id to its current slot, -1 for an unused id.
+	private int[] slotOf;
+	// Counts how many times each id has been released.
+	private int[] generation;
+	private int[] freeIds;
+	private int numFreeIds = 0;
+	private int nextId = 0;
+	private long poolHits = 0;
+	private long poolMisses = 0;
+
+	// The number of live particles that use each integrator.
+	private int[] numUsing = new int[NUM_INTEGRATORS];
+	// The number of live particles of each kind.
+	private int[] numOfKind = new int[NUM_KINDS];
+	// List the slots to be advanced by each batch solver, one pair per thread.
+	private static final ThreadLocal<int[]> RK4_SLOTS = new ThreadLocal<>();
+	private static final ThreadLocal<int[]> EULER_SLOTS = new ThreadLocal<>();
+	// Receives the results of the adaptive integrator, one per thread.
+	private static final ThreadLocal<double[]> ADAPTIVE_RESULT =
+			ThreadLocal.withInitial(() -> new double[4]);
+
+	// The particle budget, and what happens to a spark added when it is reached.
+	private int budget = NO_BUDGET;
+	private boolean evictOldest = false;
+	private long numThrottled = 0;
+	private long numEvicted = 0;
+	// While there is a budget, the handles of sparks in the order they were added.
+	private long[] sparkQueue = new long[INITIAL_CAPACITY];
+	private int sparkHead = 0;
+	private int numQueued = 0;
+
+	// Records when each particle dies.
+	private ExpiryWheel expiryWheel = new ExpiryWheel(EXPIRY_TICK, EXPIRY_BUCKETS);
+
+	/**
+	 * Creates an empty store with a default capacity.  The store grows as needed.
+	 */
+	public ParticleStore() {
+		this(INITIAL_CAPACITY);
+	} // end Constructor
+
+	/**
+	 * Creates an empty store.
+	 * @param capacity The number of particles the store can hold before it must grow.
+	 */
+	public ParticleStore(int capacity) {
+		allocate(Math.max(capacity, 1));
+		slotOf = new int[x.length];
+		Arrays.fill(slotOf, -1);
+		generation = new int[x.length];
+		freeIds = new int[x.length];
+	} // end Constructor
+
+	// Creates (or resizes) the per-slot arrays, keeping the current contents.
+	private void allocate(int capacity) {
+		x = x == null ? new double[capacity] : Arrays.copyOf(x, capacity);
+		y = y == null ? new double[capacity] : Arrays.copyOf(y, capacity);
+		vx = vx == null ? new double[capacity] : Arrays.copyOf(vx, capacity);
+		vy = vy == null ? new double[capacity] : Arrays.copyOf(vy, capacity);
+		originX = originX == null ? new double[capacity] : Arrays.copyOf(originX, capacity);
+		originY = originY == null ? new double[capacity] : Arrays.copyOf(originY, capacity);
+		previousX = previousX == null ? new double[capacity] : Arrays.copyOf(previousX, capacity);
+		previousY = previousY == null ? new double[capacity] : Arrays.copyOf(previousY, capacity);
+		mass = mass == null ? new double[capacity] : Arrays.copyOf(mass, capacity);
+		radius = radius == null ? new double[capacity] : Arrays.copyOf(radius, capacity);
+		creationTime = creationTime == null ? new double[capacity] : Arrays.copyOf(creationTime, capacity);
+		lifetime = lifetime == null ? new double[capacity] : Arrays.copyOf(lifetime, capacity);
+		startingMass = startingMass == null ? new double[capacity] : Arrays.copyOf(startingMass, capacity);
+		burnRate = burnRate == null ? new double[capacity] : Arrays.copyOf(burnRate, capacity);
+		density = density == null ? new double[capacity] : Arrays.copyOf(density, capacity);
+		kind = kind == null ? new int[capacity] : Arrays.copyOf(kind, capacity);
+		colour = colour == null ? new int[capacity] : Arrays.copyOf(colour, capacity);
+		id = id == null ? new int[capacity] : Arrays.copyOf(id, capacity);
+		integrator = integrator == null ? new int[capacity] : Arrays.copyOf(integrator, capacity);
+		trajectory = trajectory == null ? new AdaptiveTrajectory[capacity] : Arrays.copyOf(trajectory, capacity);
+	} // end allocate
+
+	// Makes sure there is room for the supplied number of particles.
+	private void ensureCapacity(int required) {
+		if (required <= x.length)
+			return;
+		int capacity = Math.max(required, x.length * 2);
+		allocate(capacity);
+		int oldLength = slotOf.length;
+		slotOf = Arrays.copyOf(slotOf, capacity);
+		Arrays.fill(slotOf, oldLength, capacity, -1);
+		generation = Arrays.copyOf(generation, capacity);
+		freeIds = Arrays.copyOf(freeIds, capacity);
+	} // end ensureCapacity
+
+	// Returns an unused particle id.
+	private int takeId() {
+		if (numFreeIds > 0) {
+			poolHits++;
+			return freeIds[--numFreeIds];
+		}
+		poolMisses++;
+		return nextId++;
+	} // end takeId
+
+	/**
+	 * Adds a particle based on a template.  The mass, radius, lifetime, kind and integrator
+	 * are taken from the template.  A Streak uses the supplied position as its origin.
+	 * @param template The Particle that describes the new particle.
+	 * @param colourIndex The palette index of the colour of the particle.
+	 * @param posX The x position in metres.
+	 * @param posY The y position in metres.
+	 * @param velX The x velocity in m/sec.
+	 * @param velY The y velocity in m/sec.
+	 * @param time The absolute creation time in seconds.
+	 * @return The slot of the new particle, or -1 if it was refused because the store is at
+	 * its budget.
+	 */
+	public int add(Particle template, int colourIndex, double posX, double posY,
+			double velX, double velY, double time) {
+		if (size >= budget && !makeRoom(template.getKind()))
+			return -1;
+		ensureCapacity(size + 1);
+		int slot = size++;
+		int newId = takeId();
+		x[slot] = posX;
+		y[slot] = posY;
+		vx[slot] = velX;
+		vy[slot] = velY;
+		originX[slot] = posX;
+		originY[slot] = posY;
+		previousX[slot] = posX;
+		previousY[slot] = posY;
+		mass[slot] = template.getMass();
+		radius[slot] = template.getRadius();
+		creationTime[slot] = time;
+		lifetime[slot] = template.getLifetime();
+		kind[slot] = template.getKind();
+		colour[slot] = colourIndex;
+		id[slot] = newId;
+		integrator[slot] = template.getIntegrator();
+		trajectory[slot] = null;
+		numUsing[integrator[slot]]++;
+		numOfKind[kind[slot]]++;
+		slotOf[newId] = slot;
+		if (template instanceof BurningParticle) {
+			BurningParticle star = (BurningParticle)template;
+			startingMass[slot] = star.getMass();
+			burnRate[slot] = star.getBurnRate();
+			density[slot] = star.getDensity();
+		} else {
+			startingMass[slot] = template.getMass();
+			burnRate[slot] = 0;
+			density[slot] = 0;
+		}
+		expiryWheel.schedule(getHandle(slot), time + lifetime[slot]);
+		if (budget != NO_BUDGET && kind[slot] == SPARK)
+			queueSpark(getHandle(slot));
+		return slot;
+	} // end add
+
+	// Makes room for a particle of the supplied kind in a store at its budget, by evicting
+	// the oldest spark if that is allowed.  Returns false if the particle must be refused.
+	private boolean makeRoom(int particleKind) {
+		if (particleKind == SPARK && !evictOldest) {
+			numThrottled++;
+			return false;
+		}
+		int oldest = pollOldestSpark();
+		if (oldest >= 0) {
+			kill(oldest);
+			numEvicted++;
+			return true;
+		}
+		// With no sparks left to evict, stars and streaks are kept over the budget.
+		if (particleKind == SPARK) {
+			numThrottled++;
+			return false;
+		}
+		return true;
+	} // end makeRoom
+
+	// Adds a spark to the back of the queue.  Sparks at the front that have already died
+	// are dropped, so the queue stays close to the number of live sparks.
+	private void queueSpark(long handle) {
+		while (numQueued > 0 && slotOfHandle(sparkQueue[sparkHead]) < 0) {
+			sparkHead = (sparkHead + 1) & (sparkQueue.length - 1);
+			numQueued--;
+		}
+		if (numQueued == sparkQueue.length) {
+			// Unwrap the queue into an array twice as long; the length stays a power of two.
+			long[] queue = new long[sparkQueue.length * 2];
+			for (int index = 0; index < numQueued; index++)
+				queue[index] = sparkQueue[(sparkHead + index) & (sparkQueue.length - 1)];
+			sparkQueue = queue;
+			sparkHead = 0;
+		}
+		sparkQueue[(sparkHead + numQueued) & (sparkQueue.length - 1)] = handle;
+		numQueued++;
+	} // end queueSpark
+
+	// Takes the oldest spark still alive from the front of the queue and returns its slot,
+	// or -1 if there is none.
+	private int pollOldestSpark() {
+		while (numQueued > 0) {
+			long handle = sparkQueue[sparkHead];
+			sparkHead = (sparkHead + 1) & (sparkQueue.length - 1);
+			numQueued--;
+			int slot = slotOfHandle(handle);
+			if (slot >= 0)
+				return slot;
+		}
+		return -1;
+	} // end pollOldestSpark
+
+	/**
+	 * Sets the particle budget.  A store already over the new budget keeps its particles,
+	 * but no spark is added until it is back under.  Only sparks added from now on can be
+	 * evicted.
+	 * @param budget The largest number of particles, or NO_BUDGET for no limit.
+	 * @param evictOldest true to evict the oldest spark to make room for a new one, false
+	 * to refuse the new spark.
+	 */
+	public void setBudget(int budget, boolean evictOldest) {
+		this.budget = Math.max(budget, 1);
+		this.evictOldest = evictOldest;
+		if (budget == NO_BUDGET) {
+			numQueued = 0;
+			sparkHead = 0;
+		}
+	} // end setBudget
+
+	/**
+	 * An accessor for the particle budget.
+	 * @return The largest number of particles, or NO_BUDGET if there is no limit.
+	 */
+	public int getBudget() { return budget; }
+
+	/**
+	 * Returns how full the store is against its budget.
+	 * @return The number of particles divided by the budget, 0 if there is no budget.
+	 */
+	public double getBudgetPressure() {
+		return budget == NO_BUDGET ? 0 : (double) size / budget;
+	} // end getBudgetPressure
+
+	/**
+	 * An accessor for the number of sparks refused because the store was at its budget.
+	 * @return The number of sparks refused since the store was created.
+	 */
+	public long getNumThrottled() { return numThrottled; }
+
+	/**
+	 * An accessor for the number of sparks evicted to make room for new particles.
+	 * @return The number of sparks evicted since the store was created.
+	 */
+	public long getNumEvicted() { return numEvicted; }
+
+	// Moves the particle in slot "from" into slot "to", overwriting it.
+	private void move(int from, int to) {
+		x[to] = x[from];
+		y[to] = y[from];
+		vx[to] = vx[from];
+		vy[to] = vy[from];
+		originX[to] = originX[from];
+		originY[to] = originY[from];
+		previousX[to] = previousX[from];
+		previousY[to] = previousY[from];
+		mass[to] = mass[from];
+		radius[to] = radius[from];
+		creationTime[to] = creationTime[from];
+		lifetime[to] = lifetime[from];
+		startingMass[to] = startingMass[from];
+		burnRate[to] = burnRate[from];
+		density[to] = density[from];
+		kind[to] = kind[from];
+		colour[to] = colour[from];
+		id[to] = id[from];
+		integrator[to] = integrator[from];
+		trajectory[to] = trajectory[from];
+		slotOf[id[to]] = to;
+	} // end move
+
+	// Releases the id of the particle in the supplied slot.
+	private void releaseId(int slot) {
+		numUsing[integrator[slot]]--;
+		numOfKind[kind[slot]]--;
+		trajectory[slot] = null;
+		slotOf[id[slot]] = -1;
+		generation[id[slot]]++;
+		freeIds[numFreeIds++] = id[slot];
+	} // end releaseId
+
+	/**
+	 * Removes every particle whose lifetime has passed.  Only the particles that die are
+	 * visited, and each is replaced by the particle in the last slot, so the order of the
+	 * surviving particles is not kept.
+	 * @param time The absolute time in seconds.
+	 * @return The number of particles removed.
+	 */
+	public int removeDead(double time) {
+		return expiryWheel.expire(time, this);
+	} // end removeDead
+
+	/**
+	 * Removes every particle that has left the world for good, as decided by the supplied
+	 * bounds.  As with removeDead(), the order of the surviving particles is not kept.
+	 * @param bounds The WorldBounds to check against.
+	 * @param wind The wind velocity in m/sec.
+	 * @return The number of particles removed.
+	 */
+	public int removeOutOfBounds(WorldBounds bounds, double wind) {
+		int removed = 0;
+		// Going down means the particle moved into a freed slot has already been checked.
+		for (int slot = size - 1; slot >= 0; slot--)
+			if (bounds.mustRetire(x[slot], y[slot], vx[slot], vy[slot], wind)) {
+				kill(slot);
+				removed++;
+			}
+		return removed;
+	} // end removeOutOfBounds
+
+	/**
+	 * Removes the particle in a slot by moving the particle in the last slot into it.
+	 * @param slot The slot of the particle to remove.
+	 */
+	public void kill(int slot) {
+		releaseId(slot);
+		int last = --size;
+		if (slot != last) {
+			move(last, slot);
+			trajectory[last] = null;
+		}
+	} // end kill
+
+	/**
+	 * Removes every particle from the store.
+	 */
+	public void clear() {
+		for (int slot = 0; slot < size; slot++)
+			releaseId(slot);
+		size = 0;
+		expiryWheel.clear();
+		numQueued = 0;
+		sparkHead = 0;
+	} // end clear
+
+	/**
+	 * Updates the positions of the particles from slot "from" up to, but not including,
+	 * slot "to" over one time interval.  Each particle is advanced by the integrator it was
+	 * launched with: the BatchRungeKuttaSolver, the BatchEulerSolver, or its own
+	 * DormandPrinceSolver.  Stars first have their mass and radius reduced as they burn.
+	 * The positions before the update are kept so that drawing can be interpolated
+	 * between the two.
+	 * @param from The first slot to update.
+	 * @param to One past the last slot to update.
+	 * @param time The absolute time in seconds.
+	 * @param deltaTime The time interval in seconds.
+	 * @param env The Environment that supplies the wind velocity.
+	 */
+	public void updatePositions(int from, int to, double time, double deltaTime, Environment env) {
+		System.arraycopy(x, from, previousX, from, to - from);
+		System.arraycopy(y, from, previousY, from, to - from);
+		for (int slot = from; slot < to; slot++)
+			if (kind[slot] == STAR) {
+				// A star is still alive at the very end of its lifetime, when it has no mass left.
+				mass[slot] = Math.max(startingMass[slot] - (time - creationTime[slot]) * burnRate[slot],
+						startingMass[slot] * AdaptiveTrajectory.MIN_MASS_FRACTION);
+				radius[slot] = BurningParticle.getRadius(mass[slot], density[slot]);
+			}
+		double wind = env.getWindVelocity();
+		// When every particle uses the same batch solver, no lists are needed.
+		if (numUsing[RK4] == size) {
+			BatchRungeKuttaSolver.advance(x, y, vx, vy, mass, radius, from, to, wind, deltaTime);
+			return;
+		}
+		if (numUsing[EULER] == size) {
+			BatchEulerSolver.advance(x, y, vx, vy, mass, radius, from, to, wind, deltaTime);
+			return;
+		}
+		int[] rk4Slots = getSlots(RK4_SLOTS, to - from);
+		int[] eulerSlots = getSlots(EULER_SLOTS, to - from);
+		int numRk4 = 0;
+		int numEuler = 0;
+		double[] result = ADAPTIVE_RESULT.get();
+		for (int slot = from; slot < to; slot++) {
+			if (integrator[slot] == RK4)
+				rk4Slots[numRk4++] = slot;
+			else if (integrator[slot] == EULER)
+				eulerSlots[numEuler++] = slot;
+			else {
+				if (trajectory[slot] == null)
+					trajectory[slot] = new AdaptiveTrajectory(x[slot], y[slot], vx[slot], vy[slot],
+							creationTime[slot], startingMass[slot], radius[slot], burnRate[slot],
+							density[slot], wind);
+				trajectory[slot].advanceTo(time, wind, result);
+				vx[slot] = result[0];
+				vy[slot] = result[1];
+				x[slot] = result[2];
+				y[slot] = result[3];
+			}
+		}
+		BatchRungeKuttaSolver.advance(x, y, vx, vy, mass, radius, rk4Slots, numRk4, wind, deltaTime);
+		BatchEulerSolver.advance(x, y, vx, vy, mass, radius, eulerSlots, numEuler, wind, deltaTime);
+	} // end updatePositions
+
+	// Returns a slot list of the calling thread, making sure it can hold the supplied
+	// number of slots.
+	private static int[] getSlots(ThreadLocal<int[]> list, int count) {
+		int[] slots = list.get();
+		if (slots == null || slots.length < count) {
+			slots = new int[Math.max(count, slots == null ? 0 : slots.length * 2)];
+			list.set(slots);
+		}
+		return slots;
+	} // end getSlots
+
+	/**
+	 * A mutator for the velocity of the particle in a slot.
+	 * @param slot The slot of the particle.
+	 * @param velX The x velocity in m/sec.
+	 * @param velY The y velocity in m/sec.
+	 */
+	public void setVelocity(int slot, double velX, double velY) {
+		vx[slot] = velX;
+		vy[slot] = velY;
+	} // end setVelocity
+
+	/**
+	 * Copies the live particles into a FrameSnapshot.
+	 * @param snapshot The snapshot to fill.
+	 * @param frameNumber A number that increases with each new frame.
+	 * @param time The absolute time of the frame in seconds.
+	 */
+	public void writeSnapshot(FrameSnapshot snapshot, long frameNumber, double time) {
+		snapshot.fill(frameNumber, time, size, x, y, previousX, previousY, originX, originY,
+				kind, colour, id);
+	} // end writeSnapshot
+
+	/**
+	 * Copies the particles into part of a snapshot that has been started with room for
+	 * them, as when the particles of several stores are merged into one frame.
+	 * @param snapshot The FrameSnapshot to copy into.
+	 * @param offset The position in the snapshot of the first particle.
+	 * @param idBase A value added to every particle id.
+	 */
+	public void writeSnapshot(FrameSnapshot snapshot, int offset, int idBase) {
+		snapshot.put(offset, size, x, y, previousX, previousY, originX, originY, kind, colour,
+				id, idBase);
+	} // end writeSnapshot
+
+	/**
+	 * An accessor for the number of particles added in place of a dead one.
+	 * @return The number of pool hits since the store was created.
+	 */
+	public long getPoolHits() { return poolHits; }
+
+	/**
+	 * An accessor for the number of particles added that needed a new id, and possibly
+	 * more room in the store.
+	 * @return The number of pool misses since the store was created.
+	 */
+	public long getPoolMisses() { return poolMisses; }
+
+	/**
+	 * An accessor for the number of live particles.
+	 * @return The number of particles in the store.
+	 */
+	public int size() { return size; }
+
+	/**
+	 * Returns the number of live particles of a kind.
+	 * @param particleKind SPARK, STREAK or STAR.
+	 * @return The number of particles of that kind in the store.
+	 */
+	public int getNumOfKind(int particleKind) { return numOfKind[particleKind]; }
+
+	/**
+	 * Returns the slot currently held by a particle id.
+	 * @param particleId The id of the particle.
+	 * @return The slot, or -1 if the particle is no longer alive.
+	 */
+	public int slotOf(int particleId) {
+		return particleId >= 0 && particleId < slotOf.length ? slotOf[particleId] : -1;
+	} // end slotOf
+
+	/**
+	 * Returns a handle for the particle in a slot that stays valid only as long as that
+	 * particle is alive, even if its id is later reused.
+	 * @param slot The slot of the particle.
+	 * @return The handle of the particle.
+	 */
+	public long getHandle(int slot) {
+		return ((long)generation[id[slot]] << 32) | id[slot];
+	} // end getHandle
+
+	/**
+	 * Returns the slot currently held by the particle with the supplied handle.
+	 * @param handle A handle obtained from getHandle().
+	 * @return The slot, or -1 if that particle is no longer alive.
+	 */
+	public int slotOfHandle(long handle) {
+		int particleId = (int)handle;
+		int slot = slotOf(particleId);
+		if (slot < 0 || generation[particleId] != (int)(handle >>> 32))
+			return -1;
+		return slot;
+	} // end slotOfHandle
+
+	/**
+	 * Returns true if the particle in the slot is still within its lifetime.
+	 * @param slot The slot of the particle.
+	 * @param time The absolute time in seconds.
+	 * @return true if the particle is still alive, false otherwise.
+	 */
+	public boolean isAlive(int slot, double time) {
+		return time - creationTime[slot] <= lifetime[slot];
+	} // end isAlive
+
+	/**
+	 * An accessor for the x position of a particle.
+	 * @param slot The slot of the particle.
+	 * @return The x position in metres.
+	 */
+	public double getX(int slot) { return x[slot]; }
+
+	/**
+	 * An accessor for the y position of a particle.
+	 * @param slot The slot of the particle.
+	 * @return The y position in metres.
+	 */
+	public double getY(int slot) { return y[slot]; }
+
+	/**
+	 * An accessor for the x component of the velocity of a particle.
+	 * @param slot The slot of the particle.
+	 * @return The x velocity in m/sec.
+	 */
+	public double getVelocityX(int slot) { return vx[slot]; }
+
+	/**
+	 * An accessor for the y component of the velocity of a particle.
+	 * @param slot The slot of the particle.
+	 * @return The y velocity in m/sec.
+	 */
+	public double getVelocityY(int slot) { return vy[slot]; }
+
+	/**
+	 * An accessor for the x position from which a particle was launched.
+	 * @param slot The slot of the particle.
+	 * @return The x position of the origin in metres.
+	 */
+	public double getOriginX(int slot) { return originX[slot]; }
+
+	/**
+	 * An accessor for the y position from which a particle was launched.
+	 * @param slot The slot of the particle.
+	 * @return The y position of the origin in metres.
+	 */
+	public double getOriginY(int slot) { return originY[slot]; }
+
+	/**
+	 * An accessor for the mass of a particle, which falls as a star burns.
+	 * @param slot The slot of the particle.
+	 * @return The mass in kg.
+	 */
+	public double getMass(int slot) { return mass[slot]; }
+
+	/**
+	 * An accessor for the radius of a particle.
+	 * @param slot The slot of the particle.
+	 * @return The radius in metres.
+	 */
+	public double getRadius(int slot) { return radius[slot]; }
+
+	/**
+	 * An accessor for the time at which a particle was created.
+	 * @param slot The slot of the particle.
+	 * @return The absolute time in seconds.
+	 */
+	public double getCreationTime(int slot) { return creationTime[slot]; }
+
+	/**
+	 * An accessor for the lifetime of a particle.
+	 * @param slot The slot of the particle.
+	 * @return The lifetime in seconds.
+	 */
+	public double getLifetime(int slot) { return lifetime[slot]; }
+
+	/**
+	 * An accessor for the kind of a particle.
+	 * @param slot The slot of the particle.
+	 * @return SPARK, STREAK or STAR.
+	 */
+	public int getKind(int slot) { return kind[slot]; }
+
+	/**
+	 * An accessor for the palette colour index of a particle.
+	 * @param slot The slot of the particle.
+	 * @return The index into the Palette.
+	 */
+	public int getColour(int slot) { return colour[slot]; }
+
+	/**
+	 * An accessor for the id of a particle, which is reused once the particle has died.
+	 * @param slot The slot of the particle.
+	 * @return The id.
+	 */
+	public int getId(int slot) { return id[slot]; }
+
+} // end ParticleStore
@@ -0,0 +1,85 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A viewer of a show published by a FrameServer.  A thread reads the frames from the
+ * socket, decodes them with a FrameDecoder and publishes them as snapshots, so that the
+ * remote show can be run by a SimulationThread and drawn like a local one.  No physics is
+ * done here: step() does nothing, and the wind velocity and launch angle cannot be
+ * changed.  The show is finished when the server closes the connection.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class RemoteSimulation implements Simulation, Runnable {
+
+	private final SocketChannel channel;
+	private final FrameDecoder decoder = new FrameDecoder();
+	private final SnapshotBuffer snapshots = new SnapshotBuffer();
+	private final Thread thread;
+	private volatile boolean finished = false;
+
+	/**
+	 * The RemoteSimulation constructor.  Connects to the server and starts reading frames.
+	 * @param host The name of the machine running the server.
+	 * @param port The port of the server.
+	 * @throws IOException If the server cannot be reached.
+	 */
+	public RemoteSimulation(String host, int port) throws IOException {
+		channel = SocketChannel.open(new InetSocketAddress(host, port));
+		thread = new Thread(this, "frame reader");
+		thread.setDaemon(true);
+		thread.start();
+	} // end Constructor
+
+	/**
+	 * Reads frames until the connection is closed.
+	 */
+	public void run() {
+		ByteBuffer length = ByteBuffer.allocate(4);
+		ByteBuffer frame = ByteBuffer.allocate(1 << 16);
+		try {
+			while (true) {
+				length.clear();
+				readFully(length);
+				int size = length.getInt(0);
+				if (frame.capacity() < size)
+					frame = ByteBuffer.allocate(Math.max(size, frame.capacity() * 2));
+				frame.clear().limit(size);
+				readFully(frame);
+				frame.flip();
+				if (decoder.decode(frame, snapshots.getBack()))
+					snapshots.publish();
+			}
+		} catch (IOException except) {
+			// The server has closed the connection, or sent a frame that cannot be decoded
+		} finally {
+			finished = true;
+			try {
+				channel.close();
+			} catch (IOException except) {}		// already gone
+		}
+	} // end run
+
+	// Reads until the buffer is full.
+	private void readFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			if (channel.read(buffer) < 0)
+				throw new EOFException();
+	} // end readFully
+
+	public void step(double time) {}
+
+	public FrameSnapshot getSnapshot() {
+		return snapshots.acquire();
+	} // end getSnapshot
+
+	public boolean isFinished() { return finished; }
+
+	public void setWindVelocity(double wind) {}
+
+	public void setLaunchAngle(double firingAngle) {}
+
+} // end RemoteSimulation class
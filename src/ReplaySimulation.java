@@ -0,0 +1,46 @@
+/**
+ * Plays a FrameRecording back as a Simulation, so that it can be run by a SimulationThread
+ * and drawn exactly like a live show.  Each step publishes the newest recorded frame that
+ * is due; no physics is done.  A recorded show cannot be steered, so changes to the wind
+ * velocity and launch angle are ignored.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ReplaySimulation implements Simulation {
+
+	private final FrameRecording recording;
+	private final SnapshotBuffer snapshots = new SnapshotBuffer();
+	private int nextFrame = 0;
+
+	/**
+	 * The ReplaySimulation constructor.
+	 * @param recording The FrameRecording to play.
+	 */
+	public ReplaySimulation(FrameRecording recording) {
+		this.recording = recording;
+	} // end Constructor
+
+	public void step(double time) {
+		int frame = nextFrame;
+		while (frame < recording.getNumFrames() && recording.getTime(frame) <= time)
+			frame++;
+		if (frame == nextFrame)
+			return;		// no new frame is due yet
+		nextFrame = frame;
+		recording.read(frame - 1, snapshots.getBack());
+		snapshots.publish();
+	} // end step
+
+	public FrameSnapshot getSnapshot() {
+		return snapshots.acquire();
+	} // end getSnapshot
+
+	public boolean isFinished() {
+		return nextFrame >= recording.getNumFrames();
+	} // end isFinished
+
+	public void setWindVelocity(double wind) {}
+
+	public void setLaunchAngle(double firingAngle) {}
+
+} // end ReplaySimulation class
@@ -1,10 +1,14 @@
 /**
  * A class used to solve any size system of ordinary differential equations.
  * @author Jonah Chin
- * @version 1.1
+ * @version 1.2
  */
 public class RungeKuttaSolver {
 
+	// Scratch arrays for the buffered solver, one set per thread: q1, q2, q3, q4,
+	// the starting values and the intermediate values.
+	private static final ThreadLocal<double[][]> SCRATCH = new ThreadLocal<>();
+
 	/**
 	 * Estimates the next point generated by the ODE system supplied to the constructor.
 	 * Invokes the methods from the ode object that were specified by the ODESystem interface.
@@ -44,4 +48,56 @@ public class RungeKuttaSolver {
 		return newVals;
 	} // end getNextPoint
 
+	/**
+	 * Estimates the next point generated by the supplied ODE system without creating any
+	 * arrays once the calling thread has solved a system of this size before.
+	 * @param ode The class, implementing BufferedODESystem, that contains the system of
+	 * differential equations to be solved.
+	 * @param time The current time.  It is assumed that the point for this time is known and
+	 * can be obtained from the ode object.
+	 * @param deltaTime The time interval in seconds.
+	 * @param result An array at least the size of the system that receives the estimates
+	 * of the dependent variables at time + deltaTime.  It may be the array that holds the
+	 * current values of the ode object, since those are read before result is written.
+	 */
+	public static void getNextPoint(BufferedODESystem ode, double time, double deltaTime,
+			double[] result) {
+		int systemSize = ode.getSystemSize();
+		double[][] scratch = getScratch(systemSize);
+		double[] q1 = scratch[0];
+		double[] q2 = scratch[1];
+		double[] q3 = scratch[2];
+		double[] q4 = scratch[3];
+		double[] values = scratch[4];
+		double[] intermediateVals = scratch[5];
+		double halfTime = time + deltaTime / 2;
+		double fullTime = time + deltaTime;
+		int valNum;
+		ode.getState(values);
+		ode.getFunction(time, values, q1);
+		for (valNum = 0; valNum < systemSize; valNum++)
+			intermediateVals[valNum] = values[valNum] + deltaTime * q1[valNum] / 2;
+		ode.getFunction(halfTime, intermediateVals, q2);
+		for (valNum = 0; valNum < systemSize; valNum++)
+			intermediateVals[valNum] = values[valNum] + deltaTime * q2[valNum] / 2;
+		ode.getFunction(halfTime, intermediateVals, q3);
+		for (valNum = 0; valNum < systemSize; valNum++)
+			intermediateVals[valNum] = values[valNum] + deltaTime * q3[valNum];
+		ode.getFunction(fullTime, intermediateVals, q4);
+		for (valNum = 0; valNum < systemSize; valNum++)
+			result[valNum] = values[valNum] + deltaTime * (q1[valNum] + 2 * q2[valNum] +
+					2 * q3[valNum] + q4[valNum]) / 6;
+	} // end getNextPoint
+
+	// Returns the scratch arrays of the calling thread, making sure they can hold a
+	// system of the supplied size.
+	private static double[][] getScratch(int systemSize) {
+		double[][] scratch = SCRATCH.get();
+		if (scratch == null || scratch[0].length < systemSize) {
+			scratch = new double[6][systemSize];
+			SCRATCH.set(scratch);
+		}
+		return scratch;
+	} // end getScratch
+
 } // end RungeKuttaSolver class
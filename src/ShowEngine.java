@@ -0,0 +1,225 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a show of many launch tubes, each with its own ParticleManager, position, angle and
+ * star sequence, either given directly or read from a ShowScript.  The tubes are dealt
+ * out in turn to a fixed number of shards, one for each worker thread of a ForkJoinPool,
+ * so that each tube's particles are always updated by the same shard.  A step updates the
+ * shards in parallel and then copies every tube's particles, again in parallel, into one
+ * snapshot for drawing.  Since the tubes do not affect each other, the show is the same
+ * whatever the number of threads.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ShowEngine implements Simulation {
+
+	/**
+	 * The largest number of tubes in a show.  The index of the tube is kept in the top
+	 * bits of the particle ids of the snapshot, so that ids from different tubes differ.
+	 */
+	public static final int MAX_TUBES = 256;
+	private static final int TUBE_ID_SHIFT = 24;
+	private static final double MAX_ANGLE = 15;		// degrees, the most the emitter allows
+
+	private final ParticleManager[] tubes;
+	// The launch angle each tube was configured with.
+	private final double[] baseAngles;		// degrees
+	private final ForkJoinPool pool;
+	private final int numShards;
+	// The position in the merged snapshot of the first particle of each tube.
+	private final int[] offsets;
+	private final SnapshotBuffer snapshots = new SnapshotBuffer();
+	private long frameNumber = 0;
+	private double lastTime = 0;		// sec
+	// The store of each tube, for counting the particles of a step.
+	private final ParticleStore[] stores;
+	// Measures each step when not null.
+	private FrameTelemetry telemetry = null;
+
+	/**
+	 * The ShowEngine constructor.
+	 * @param windVelocity The wind velocity in km/hour.
+	 * @param configs The TubeConfig of each tube.
+	 * @param seed The seed from which every random variation in the show is derived.
+	 * @param pool The ForkJoinPool whose threads update the shards.
+	 * @throws EnvironmentException If the wind velocity is not between -20 and 20 km/hour.
+	 * @throws EmitterException If a tube cannot be created, or there are no tubes or more
+	 * than MAX_TUBES.
+	 */
+	public ShowEngine(double windVelocity, TubeConfig[] configs, long seed, ForkJoinPool pool)
+			throws EnvironmentException, EmitterException {
+		if (configs.length < 1 || configs.length > MAX_TUBES)
+			throw new EmitterException("Number of tubes must be from 1 to " + MAX_TUBES + ": "
+					+ configs.length);
+		SplittableRandom showRandom = new SplittableRandom(seed);
+		tubes = new ParticleManager[configs.length];
+		baseAngles = new double[configs.length];
+		for (int index = 0; index < tubes.length; index++) {
+			tubes[index] = new ParticleManager(windVelocity, configs[index], showRandom.nextLong());
+			baseAngles[index] = configs[index].getLaunchAngle();
+		}
+		this.pool = pool;
+		numShards = Math.min(tubes.length, pool.getParallelism());
+		offsets = new int[tubes.length + 1];
+		stores = new ParticleStore[tubes.length];
+		for (int index = 0; index < tubes.length; index++)
+			stores[index] = tubes[index].getStore();
+	} // end Constructor
+
+	/**
+	 * The ShowEngine constructor for a show script.  Each launch event of the script is
+	 * queued on its tube.
+	 * @param windVelocity The wind velocity in km/hour.
+	 * @param script The compiled ShowScript.
+	 * @param seed The seed from which every random variation in the show is derived.
+	 * @param pool The ForkJoinPool whose threads update the shards.
+	 * @throws EnvironmentException If the wind velocity is not between -20 and 20 km/hour.
+	 * @throws EmitterException If a tube cannot be created, or there are more than
+	 * MAX_TUBES.
+	 */
+	public ShowEngine(double windVelocity, ShowScript script, long seed, ForkJoinPool pool)
+			throws EnvironmentException, EmitterException {
+		this(windVelocity, script.getTubes(), seed, pool);
+		for (ShowEvent event : script.getEvents())
+			tubes[event.getTube()].schedule(event.getTime(), event.getColour());
+	} // end Constructor
+
+	/**
+	 * The ShowEngine constructor, using the common pool.
+	 * @param windVelocity The wind velocity in km/hour.
+	 * @param configs The TubeConfig of each tube.
+	 * @param seed The seed from which every random variation in the show is derived.
+	 * @throws EnvironmentException If the wind velocity is not between -20 and 20 km/hour.
+	 * @throws EmitterException If a tube cannot be created, or there are no tubes or more
+	 * than MAX_TUBES.
+	 */
+	public ShowEngine(double windVelocity, TubeConfig[] configs, long seed)
+			throws EnvironmentException, EmitterException {
+		this(windVelocity, configs, seed, ForkJoinPool.commonPool());
+	} // end Constructor
+
+	public void step(double time) {
+		SimulationStepEvent event = new SimulationStepEvent();
+		event.begin();
+		long startBytes = telemetry == null ? 0 : telemetry.getAllocatedBytes();
+		long start = telemetry == null ? 0 : System.nanoTime();
+		pool.invoke(new ShardTask(0, numShards, time, false));
+		long mergeStart = telemetry == null ? 0 : System.nanoTime();
+		for (int index = 0; index < tubes.length; index++)
+			offsets[index + 1] = offsets[index] + stores[index].size();
+		FrameSnapshot snapshot = snapshots.getBack();
+		snapshot.begin(frameNumber++, time, offsets[tubes.length]);
+		pool.invoke(new ShardTask(0, numShards, time, true));
+		snapshots.publish();
+		if (telemetry != null) {
+			telemetry.record(FrameTelemetry.UPDATE, mergeStart - start);
+			telemetry.record(FrameTelemetry.SNAPSHOT, System.nanoTime() - mergeStart);
+			telemetry.endStep(stores, startBytes);
+		}
+		if (event.shouldCommit()) {
+			event.deltaTime = time - lastTime;
+			event.particleCount = offsets[tubes.length];
+			event.commit();
+		}
+		lastTime = time;
+	} // end step
+
+	/**
+	 * Starts or stops the measurement of each step.  The update of all the shards is timed
+	 * as one, and the live particles are counted over every tube.  Retirement and emission
+	 * are not timed separately, since they run on several threads at once.
+	 * @param telemetry The FrameTelemetry to record into, or null to measure nothing.
+	 */
+	public void setTelemetry(FrameTelemetry telemetry) {
+		this.telemetry = telemetry;
+	} // end setTelemetry
+
+	public FrameSnapshot getSnapshot() {
+		return snapshots.acquire();
+	} // end getSnapshot
+
+	public boolean isFinished() {
+		for (ParticleManager tube : tubes)
+			if (!tube.isFinished())
+				return false;
+		return true;
+	} // end isFinished
+
+	public void setWindVelocity(double wind) throws EnvironmentException {
+		for (ParticleManager tube : tubes)
+			tube.setWindVelocity(wind);
+	} // end setWindVelocity
+
+	/**
+	 * Tilts every tube while the show is running.  The angle is added to the angle each
+	 * tube was configured with, so that the tubes keep their spread, and each result is
+	 * clamped to the -15 to 15 degrees the emitter allows.  An angle of 0 restores the
+	 * configured angles.
+	 * @param firingAngle The angle in degrees to add to each tube's angle.
+	 * @throws EmitterException If the angle is not legal.
+	 */
+	public void setLaunchAngle(double firingAngle) throws EmitterException {
+		for (int index = 0; index < tubes.length; index++)
+			tubes[index].setLaunchAngle(Math.max(-MAX_ANGLE,
+					Math.min(MAX_ANGLE, baseAngles[index] + firingAngle)));
+	} // end setLaunchAngle
+
+	/**
+	 * An accessor for the number of tubes.
+	 * @return The number of tubes in the show.
+	 */
+	public int getNumTubes() { return tubes.length; }
+
+	/**
+	 * An accessor for the ParticleManager of one tube.  It must not be changed while the
+	 * show is being stepped.
+	 * @param index The index of the tube, in the order of the configurations.
+	 * @return The ParticleManager running the tube.
+	 */
+	public ParticleManager getTube(int index) { return tubes[index]; }
+
+	/**
+	 * An accessor for the number of shards the tubes are divided into.
+	 * @return The number of shards.
+	 */
+	public int getNumShards() { return numShards; }
+
+	// Updates, or copies into the back snapshot, the tubes of a range of shards.  Shard s
+	// owns tubes s, s + numShards, s + 2 * numShards and so on.
+	private class ShardTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int firstShard;
+		private final int endShard;
+		private final double time;			// sec
+		private final boolean merge;
+
+		private ShardTask(int firstShard, int endShard, double time, boolean merge) {
+			this.firstShard = firstShard;
+			this.endShard = endShard;
+			this.time = time;
+			this.merge = merge;
+		} // end Constructor
+
+		@Override
+		protected void compute() {
+			if (endShard - firstShard > 1) {
+				int middle = (firstShard + endShard) >>> 1;
+				invokeAll(new ShardTask(firstShard, middle, time, merge),
+						new ShardTask(middle, endShard, time, merge));
+				return;
+			}
+			for (int index = firstShard; index < tubes.length; index += numShards)
+				if (merge)
+					stores[index].writeSnapshot(snapshots.getBack(), offsets[index],
+							index << TUBE_ID_SHIFT);
+				else
+					tubes[index].update(time);
+		} // end compute
+
+	} // end ShardTask class
+
+} // end ShowEngine class
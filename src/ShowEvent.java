@@ -0,0 +1,53 @@
+/**
+ * One cue of a show: a star of some colour to be launched from some tube at some time.
+ * Events are ordered by time, and events at the same time by the order in which they were
+ * created, so a PriorityQueue of them always gives up the next event due, and cues given
+ * for the same moment fire in the order they were written.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ShowEvent implements Comparable<ShowEvent> {
+
+	private final double time;			// sec
+	private final long sequence;
+	private final int tube;
+	private final int colour;			// palette index
+
+	/**
+	 * The ShowEvent constructor.
+	 * @param time The absolute time of the launch in seconds.
+	 * @param sequence A number that orders events at the same time, lowest first.
+	 * @param tube The index of the tube that launches the star.
+	 * @param colour The palette colour index of the star.
+	 */
+	public ShowEvent(double time, long sequence, int tube, int colour) {
+		this.time = time;
+		this.sequence = sequence;
+		this.tube = tube;
+		this.colour = colour;
+	} // end Constructor
+
+	/**
+	 * An accessor for the time of the event.
+	 * @return The absolute time in seconds.
+	 */
+	public double getTime() { return time; }
+
+	/**
+	 * An accessor for the tube of the event.
+	 * @return The index of the tube.
+	 */
+	public int getTube() { return tube; }
+
+	/**
+	 * An accessor for the colour of the star.
+	 * @return The palette colour index.
+	 */
+	public int getColour() { return colour; }
+
+	public int compareTo(ShowEvent other) {
+		int byTime = Double.compare(time, other.time);
+		return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+	} // end compareTo
+
+} // end ShowEvent class
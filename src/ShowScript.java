@@ -0,0 +1,143 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A show read from a text script.  Each line holds one command, words are separated by
+ * spaces, and anything after a # is a comment.  There are two commands:
+ * <pre>
+ * tube &lt;name&gt; &lt;x metres&gt; &lt;angle degrees&gt; [delay seconds]
+ * launch &lt;time seconds&gt; &lt;tube name&gt; &lt;colour&gt;[,&lt;colour&gt;...] [count [interval seconds]]
+ * </pre>
+ * A tube must be declared before it is used.  Its angle must be from -15 to 15 degrees,
+ * the most the emitter allows, and its delay is how long the delay charge burns after each
+ * star, greater than 0 and 2.8 seconds if not given.  A launch fires count stars, from 1 to
+ * MAX_COUNT, one every interval seconds, taking the listed palette colours in turn.  Every
+ * number must be finite.  The script is compiled
+ * into one ShowEvent per star, which a ShowEngine hands to the tubes' event queues.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ShowScript {
+
+	/**
+	 * The most stars a single launch command may fire.
+	 */
+	public static final int MAX_COUNT = 1000;
+	private static final double MAX_ANGLE = 15;			// degrees
+	private static final double DEFAULT_INTERVAL = 1.0;		// sec
+
+	private final List<TubeConfig> tubes = new ArrayList<>();
+	private final HashMap<String, Integer> tubeIndex = new HashMap<>();
+	private final List<ShowEvent> events = new ArrayList<>();
+
+	/**
+	 * Reads and compiles a show script.
+	 * @param in The Reader supplying the script.
+	 * @throws IOException If the script cannot be read.
+	 * @throws ShowScriptException If a line of the script is not understood.
+	 */
+	public ShowScript(Reader in) throws IOException, ShowScriptException {
+		BufferedReader reader = new BufferedReader(in);
+		String line;
+		int lineNumber = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			int comment = line.indexOf('#');
+			if (comment >= 0)
+				line = line.substring(0, comment);
+			String[] words = line.trim().split("\\s+");
+			if (words[0].isEmpty())
+				continue;
+			try {
+				if (words[0].equals("tube"))
+					readTube(words);
+				else if (words[0].equals("launch"))
+					readLaunch(words);
+				else
+					throw new ShowScriptException("unknown command " + words[0]);
+			} catch (NumberFormatException except) {
+				throw new ShowScriptException("Line " + lineNumber + ": bad number, " + except.getMessage());
+			} catch (ShowScriptException except) {
+				throw new ShowScriptException("Line " + lineNumber + ": " + except.getMessage());
+			}
+		}
+		if (tubes.isEmpty())
+			throw new ShowScriptException("The script declares no tubes");
+	} // end Constructor
+
+	// Reads a tube command.
+	private void readTube(String[] words) throws ShowScriptException {
+		if (words.length < 4 || words.length > 5)
+			throw new ShowScriptException("expected tube <name> <x> <angle> [delay]");
+		if (tubeIndex.containsKey(words[1]))
+			throw new ShowScriptException("tube " + words[1] + " is already declared");
+		double x = parseFinite(words[2], "x");
+		double angle = parseFinite(words[3], "angle");
+		double delay = words.length > 4 ? parseFinite(words[4], "delay")
+				: ParticleManager.STAR_DELAY_TIME;
+		if (angle < -MAX_ANGLE || angle > MAX_ANGLE)
+			throw new ShowScriptException("angle must be from -15 to 15 degrees");
+		if (delay <= 0)
+			throw new ShowScriptException("delay must be greater than 0");
+		tubeIndex.put(words[1], tubes.size());
+		tubes.add(new TubeConfig(x, angle, 0, delay, new int[0]));
+	} // end readTube
+
+	// Reads a launch command and adds an event for each of its stars.
+	private void readLaunch(String[] words) throws ShowScriptException {
+		if (words.length < 4 || words.length > 6)
+			throw new ShowScriptException("expected launch <time> <tube> <colours> [count [interval]]");
+		double time = parseFinite(words[1], "time");
+		Integer tube = tubeIndex.get(words[2]);
+		if (tube == null)
+			throw new ShowScriptException("unknown tube " + words[2]);
+		String[] names = words[3].split(",");
+		int[] colours = new int[names.length];
+		for (int index = 0; index < names.length; index++) {
+			colours[index] = Palette.indexOf(names[index]);
+			if (colours[index] < 0)
+				throw new ShowScriptException("unknown colour " + names[index]);
+		}
+		int count = words.length > 4 ? Integer.parseInt(words[4]) : 1;
+		double interval = words.length > 5 ? parseFinite(words[5], "interval") : DEFAULT_INTERVAL;
+		if (count < 1)
+			throw new ShowScriptException("count must be at least 1");
+		if (count > MAX_COUNT)
+			throw new ShowScriptException("count must be at most " + MAX_COUNT);
+		if (time < 0 || interval < 0)
+			throw new ShowScriptException("time and interval must not be negative");
+		for (int star = 0; star < count; star++)
+			events.add(new ShowEvent(time + star * interval, events.size(), tube,
+					colours[star % colours.length]));
+	} // end readLaunch
+
+	// Reads a number that must be finite, named in the error if it is not.
+	private static double parseFinite(String word, String name) throws ShowScriptException {
+		double value = Double.parseDouble(word);
+		if (!Double.isFinite(value))
+			throw new ShowScriptException(name + " must be a finite number");
+		return value;
+	} // end parseFinite
+
+	/**
+	 * Returns the configuration of each tube, in the order they were declared.  The tubes
+	 * have no stars of their own; their stars come from the events.
+	 * @return An array of TubeConfig objects.
+	 */
+	public TubeConfig[] getTubes() {
+		return tubes.toArray(new TubeConfig[0]);
+	} // end getTubes
+
+	/**
+	 * Returns the launch events, in the order they were written.
+	 * @return A list of ShowEvent objects, one for each star.
+	 */
+	public List<ShowEvent> getEvents() {
+		return events;
+	} // end getEvents
+
+} // end ShowScript class
@@ -0,0 +1,16 @@
+/**
+ * Thrown by the ShowScript object if a script cannot be understood.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ShowScriptException extends Exception {
+
+	/**
+	 * Accepts a specific message about the problem.
+	 * @param message A string error message.
+	 */
+	public ShowScriptException(String message) {
+		super(message);
+	}
+
+} // end ShowScriptException class
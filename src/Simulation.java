@@ -0,0 +1,45 @@
+/**
+ * A simulation that can be stepped through time and drawn, such as the single launch
+ * tube run by a ParticleManager or the many tubes run by a ShowEngine.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public interface Simulation {
+
+	/**
+	 * Updates the simulation to the supplied time and publishes a snapshot of the particles.
+	 * @param time The absolute time in seconds. The simulation started at time = 0.
+	 */
+	void step(double time);
+
+	/**
+	 * Returns the newest published snapshot of the particles.  This method may be called
+	 * from a different thread than step(), but always from the same one.  The snapshot
+	 * must not be kept after the next call to this method.
+	 * @return A FrameSnapshot of the live particles.
+	 */
+	FrameSnapshot getSnapshot();
+
+	/**
+	 * Returns true once every star has been launched and every particle has died.
+	 * @return true if the simulation is over.
+	 */
+	boolean isFinished();
+
+	/**
+	 * A mutator for the wind velocity that allows it to be changed while the simulation
+	 * is running.
+	 * @param wind in km/hour
+	 * @throws EnvironmentException If the velocity is illegal.
+	 */
+	void setWindVelocity(double wind) throws EnvironmentException;
+
+	/**
+	 * A mutator for the launch angle that allows it to be changed while the
+	 * simulation is running.
+	 * @param firingAngle The angle in degrees.
+	 * @throws EmitterException If the angle is not legal.
+	 */
+	void setLaunchAngle(double firingAngle) throws EmitterException;
+
+} // end Simulation interface
@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one step of a ParticleManager.  Its duration is the time
+ * taken by the update and the copy into a snapshot, so that slow steps can be lined up
+ * with garbage collections and compilations in the same recording.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+@Name("fireworks.SimulationStep")
+@Label("Simulation Step")
+@Category("Fireworks")
+@Description("One update of the particles of a launch tube")
+@StackTrace(false)
+public class SimulationStepEvent extends Event {
+
+	@Label("Time Step")
+	@Description("The simulated time advanced, in seconds")
+	double deltaTime;
+
+	@Label("Particle Count")
+	@Description("The number of live particles after the step")
+	int particleCount;
+
+} // end SimulationStepEvent class
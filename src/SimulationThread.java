@@ -0,0 +1,138 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a Simulation, such as a ParticleManager or ShowEngine, on its own thread with a
+ * fixed time step.  Real time is added to an accumulator and the simulation is advanced
+ * one fixed step at a time until it has caught up, so a slow frame or a pause never
+ * produces a large time interval.  Each step publishes a snapshot, so when several steps
+ * are run to catch up only the last of them is drawn; the drawing code takes the newest
+ * and interpolates between the previous and current positions held in it.
+ * Changes to the wind velocity and launch angle reach the simulation through a
+ * ParameterChannel.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class SimulationThread implements Runnable {
+
+	/**
+	 * The length of one simulation step in seconds.
+	 */
+	public static final double TIME_STEP = 1.0 / 60;
+	// The most time the simulation will try to catch up after a pause.
+	private static final double MAX_ACCUMULATED = 0.25;	// sec
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	private final Simulation manager;
+	private final ParameterChannel parameters = new ParameterChannel();
+	private final Thread thread;
+	private volatile boolean running = false;
+	private volatile boolean finished = false;
+	private volatile long startNanos;
+	// The real time that has been lost to pauses longer than MAX_ACCUMULATED.
+	private volatile double droppedTime = 0;	// sec
+
+	/**
+	 * The SimulationThread constructor.  The manager must not be used by any other
+	 * thread once start() has been called, except through getSnapshot().
+	 * @param manager The Simulation to run.
+	 */
+	public SimulationThread(Simulation manager) {
+		this.manager = manager;
+		thread = new Thread(this, "simulation");
+		thread.setDaemon(true);
+	} // end Constructor
+
+	/**
+	 * Starts the simulation thread.  The simulation time starts at zero.
+	 */
+	public void start() {
+		startNanos = System.nanoTime();
+		running = true;
+		thread.start();
+	} // end start
+
+	/**
+	 * Asks the simulation thread to stop and waits for it to finish.
+	 */
+	public void stop() {
+		running = false;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException except) {
+			Thread.currentThread().interrupt();
+		}
+	} // end stop
+
+	@Override
+	public void run() {
+		double simTime = 0;
+		double accumulator = 0;
+		long lastNanos = startNanos;
+		while (running && !manager.isFinished()) {
+			long now = System.nanoTime();
+			accumulator += (double)(now - lastNanos) / NANOS_PER_SECOND;
+			lastNanos = now;
+			if (accumulator > MAX_ACCUMULATED) {
+				droppedTime += accumulator - MAX_ACCUMULATED;
+				accumulator = MAX_ACCUMULATED;
+			}
+			if (accumulator >= TIME_STEP) {
+				parameters.applyTo(manager);
+				while (accumulator >= TIME_STEP) {
+					simTime += TIME_STEP;
+					accumulator -= TIME_STEP;
+					manager.step(simTime);
+				}
+			}
+			LockSupport.parkNanos((long)((TIME_STEP - accumulator) * NANOS_PER_SECOND));
+		}
+		finished = true;
+	} // end run
+
+	/**
+	 * Returns the newest snapshot of the particles.  Only one thread, normally the
+	 * JavaFX application thread, may call this method.
+	 * @return The newest FrameSnapshot.
+	 */
+	public FrameSnapshot getSnapshot() {
+		return manager.getSnapshot();
+	} // end getSnapshot
+
+	/**
+	 * Returns how far the current real time lies between the previous and current
+	 * positions held in a snapshot.  Drawing runs one step behind the simulation so that
+	 * it always has two positions to interpolate between.
+	 * @param snapshot The snapshot being drawn.
+	 * @return A value from 0, for the previous positions, to 1, for the current positions.
+	 */
+	public double getInterpolation(FrameSnapshot snapshot) {
+		double renderTime = (double)(System.nanoTime() - startNanos) / NANOS_PER_SECOND
+				- droppedTime - TIME_STEP;
+		double alpha = (renderTime - (snapshot.getTime() - TIME_STEP)) / TIME_STEP;
+		return Math.max(0, Math.min(1, alpha));
+	} // end getInterpolation
+
+	/**
+	 * Sends a new wind velocity to the simulation.  May be called from any thread.
+	 * @param wind The wind velocity in km/hour.
+	 */
+	public void setWindVelocity(double wind) {
+		parameters.setWindVelocity(wind);
+	} // end setWindVelocity
+
+	/**
+	 * Sends a new launch angle to the simulation.  May be called from any thread.
+	 * @param firingAngle The angle in degrees.
+	 */
+	public void setLaunchAngle(double firingAngle) {
+		parameters.setLaunchAngle(firingAngle);
+	} // end setLaunchAngle
+
+	/**
+	 * Returns true once the simulation is over or has been stopped.
+	 * @return true if the simulation thread has finished.
+	 */
+	public boolean isFinished() { return finished; }
+
+} // end SimulationThread class
@@ -0,0 +1,44 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Passes FrameSnapshot objects from the simulation to the drawing code without copying
+ * them and without locks.  Three snapshots are used in turn: the writer fills one, the
+ * most recently published one waits in the middle, and the reader holds one.  Publishing
+ * and acquiring each swap the middle snapshot atomically, so the writer never changes a
+ * snapshot the reader is using, and the reader always gets the newest complete frame.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class SnapshotBuffer {
+
+	private FrameSnapshot back = new FrameSnapshot();		// owned by the writer
+	private final AtomicReference<FrameSnapshot> ready = new AtomicReference<>(new FrameSnapshot());
+	private FrameSnapshot front = new FrameSnapshot();		// owned by the reader
+
+	/**
+	 * Returns the snapshot that the writer may fill next.  Only the writer thread may call
+	 * this method.
+	 * @return The snapshot to fill.
+	 */
+	public FrameSnapshot getBack() { return back; }
+
+	/**
+	 * Publishes the snapshot returned by getBack() once it has been filled.  Only the
+	 * writer thread may call this method.
+	 */
+	public void publish() {
+		back = ready.getAndSet(back);
+	} // end publish
+
+	/**
+	 * Returns the newest published snapshot.  The snapshot stays unchanged until the next
+	 * call to this method.  Only the reader thread may call this method.
+	 * @return The newest snapshot.
+	 */
+	public FrameSnapshot acquire() {
+		if (ready.get().getFrameNumber() > front.getFrameNumber())
+			front = ready.getAndSet(front);
+		return front;
+	} // end acquire
+
+} // end SnapshotBuffer class
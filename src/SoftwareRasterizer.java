@@ -0,0 +1,247 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Rasterizes a FrameSnapshot on the CPU into an array of premultiplied 0xAARRGGBB pixels.
+ * Sparks are drawn as 2 pixel squares, stars as discs 6 pixels across and streaks as
+ * lines 2 pixels wide, in the same places as the canvas drawing.  Colours are added
+ * together and clamped, so overlapping particles glow brighter.  The image is cut into
+ * horizontal bands that are cleared and drawn in parallel; each band only writes its own
+ * rows, so no locking is needed.  Particles wholly outside the image are found once
+ * per frame and skipped by every band.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class SoftwareRasterizer {
+
+	private static final double SCALE = 19;					// pixels per metre
+	private static final int STAR_RADIUS = 3;				// pixels
+	private static final int SPARK_SIZE = 2;				// pixels
+	private static final int STREAK_WIDTH = 2;				// pixels
+
+	private final int width;
+	private final int height;
+	private final int[] pixels;
+	private final ForkJoinPool pool;
+	private final int numBands;
+	// The screen positions of the particles of the frame being drawn.
+	private double[] screenX = new double[0];
+	private double[] screenY = new double[0];
+	private double[] originX = new double[0];
+	private double[] originY = new double[0];
+	private boolean[] visible = new boolean[0];
+	private int numCulled;
+	private FrameSnapshot frame;
+
+	/**
+	 * The SoftwareRasterizer constructor.
+	 * @param pixels The array to draw into, at least width * height long, row by row.
+	 * @param width The width of the image in pixels.
+	 * @param height The height of the image in pixels.
+	 * @param pool The pool whose threads draw the bands.
+	 * @param numBands The number of horizontal bands, must be &gt;= 1.
+	 */
+	public SoftwareRasterizer(int[] pixels, int width, int height, ForkJoinPool pool, int numBands) {
+		this.pixels = pixels;
+		this.width = width;
+		this.height = height;
+		this.pool = pool;
+		this.numBands = Math.max(1, Math.min(numBands, height));
+	} // end Constructor
+
+	/**
+	 * The SoftwareRasterizer constructor, using the common pool and one band for each of
+	 * its threads.
+	 * @param pixels The array to draw into, at least width * height long, row by row.
+	 * @param width The width of the image in pixels.
+	 * @param height The height of the image in pixels.
+	 */
+	public SoftwareRasterizer(int[] pixels, int width, int height) {
+		this(pixels, width, height, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	} // end Constructor
+
+	/**
+	 * Clears the image and draws the particles of a snapshot into it.  Positions are
+	 * interpolated between the last two steps, and the origin of the world is placed at
+	 * the middle of the bottom edge.
+	 * @param fireworks The snapshot to draw.
+	 * @param alpha The position between the last two steps, from 0 to 1.
+	 */
+	public void render(FrameSnapshot fireworks, double alpha) {
+		int count = fireworks.size();
+		if (screenX.length < count) {
+			int capacity = Math.max(count, screenX.length * 2);
+			screenX = new double[capacity];
+			screenY = new double[capacity];
+			originX = new double[capacity];
+			originY = new double[capacity];
+			visible = new boolean[capacity];
+		}
+		numCulled = 0;
+		for (int index = 0; index < count; index++) {
+			screenX[index] = fireworks.getX(index, alpha) * SCALE + width / 2.0;
+			screenY[index] = height - fireworks.getY(index, alpha) * SCALE;
+			originX[index] = fireworks.getOriginX(index) * SCALE + width / 2.0;
+			originY[index] = height - fireworks.getOriginY(index) * SCALE;
+			visible[index] = isVisible(index, fireworks.getKind(index));
+			if (!visible[index])
+				numCulled++;
+		}
+		frame = fireworks;
+		pool.invoke(new BandTask(0, numBands));
+		frame = null;
+	} // end render
+
+	/**
+	 * An accessor for the pixels drawn into.
+	 * @return The pixel array, row by row.
+	 */
+	public int[] getPixels() { return pixels; }
+
+	/**
+	 * An accessor for the width of the image.
+	 * @return The width in pixels.
+	 */
+	public int getWidth() { return width; }
+
+	/**
+	 * An accessor for the height of the image.
+	 * @return The height in pixels.
+	 */
+	public int getHeight() { return height; }
+
+	/**
+	 * An accessor for the number of particles skipped in the last frame because they were
+	 * outside the image.
+	 * @return The number of culled particles.
+	 */
+	public int getCulled() { return numCulled; }
+
+	// Returns true if any part of a particle may lie in the image.
+	private boolean isVisible(int index, int kind) {
+		double left = screenX[index];
+		double top = screenY[index];
+		double right = left + (kind == ParticleStore.STAR ? 2 * STAR_RADIUS : SPARK_SIZE);
+		double bottom = top + (kind == ParticleStore.STAR ? 2 * STAR_RADIUS : SPARK_SIZE);
+		if (kind == ParticleStore.STREAK) {
+			left = Math.min(screenX[index], originX[index]) - STREAK_WIDTH;
+			top = Math.min(screenY[index], originY[index]) - STREAK_WIDTH;
+			right = Math.max(screenX[index], originX[index]) + STREAK_WIDTH;
+			bottom = Math.max(screenY[index], originY[index]) + STREAK_WIDTH;
+		}
+		return right >= 0 && left < width && bottom >= 0 && top < height;
+	} // end isVisible
+
+	// Clears rows "top" up to, but not including, "bottom" and draws every particle that
+	// reaches into them.
+	private void renderBand(int top, int bottom) {
+		Arrays.fill(pixels, top * width, bottom * width, 0);
+		for (int index = 0; index < frame.size(); index++) {
+			if (!visible[index])
+				continue;
+			int argb = Palette.getArgb(frame.getColour(index));
+			int kind = frame.getKind(index);
+			if (kind == ParticleStore.STAR)
+				drawDisc(screenX[index] + STAR_RADIUS, screenY[index] + STAR_RADIUS, argb, top, bottom);
+			else if (kind == ParticleStore.STREAK)
+				drawLine(originX[index], originY[index], screenX[index], screenY[index], argb, top, bottom);
+			else
+				fillSquare((int) Math.floor(screenX[index]), (int) Math.floor(screenY[index]),
+						SPARK_SIZE, argb, top, bottom);
+		}
+	} // end renderBand
+
+	// Draws a star disc centred on (cx, cy) within the rows of a band.
+	private void drawDisc(double cx, double cy, int argb, int top, int bottom) {
+		int firstRow = Math.max(top, (int) Math.floor(cy - STAR_RADIUS));
+		int lastRow = Math.min(bottom - 1, (int) Math.ceil(cy + STAR_RADIUS) - 1);
+		for (int row = firstRow; row <= lastRow; row++) {
+			double dy = row + 0.5 - cy;
+			double halfWidth = STAR_RADIUS * STAR_RADIUS - dy * dy;
+			if (halfWidth <= 0)
+				continue;
+			halfWidth = Math.sqrt(halfWidth);
+			int left = Math.max(0, (int) Math.round(cx - halfWidth));
+			int right = Math.min(width, (int) Math.round(cx + halfWidth));
+			for (int column = left; column < right; column++)
+				blend(row * width + column, argb);
+		}
+	} // end drawDisc
+
+	// Draws a streak from (x0, y0) to (x1, y1) within the rows of a band, by stepping one
+	// pixel at a time along the longer axis and filling a square at each step.
+	private void drawLine(double x0, double y0, double x1, double y1, int argb, int top, int bottom) {
+		if (Math.max(y0, y1) + STREAK_WIDTH < top || Math.min(y0, y1) - STREAK_WIDTH >= bottom)
+			return;
+		int steps = (int) Math.ceil(Math.max(Math.abs(x1 - x0), Math.abs(y1 - y0)));
+		int lastColumn = 0;
+		int lastRow = 0;
+		for (int step = 0; step <= steps; step++) {
+			double t = steps == 0 ? 0 : (double) step / steps;
+			int column = (int) Math.floor(x0 + (x1 - x0) * t) - STREAK_WIDTH / 2;
+			int row = (int) Math.floor(y0 + (y1 - y0) * t) - STREAK_WIDTH / 2;
+			// Squares of neighbouring steps overlap, so only cover pixels not yet covered.
+			if (step == 0 || Math.abs(column - lastColumn) >= STREAK_WIDTH
+					|| Math.abs(row - lastRow) >= STREAK_WIDTH)
+				fillSquare(column, row, STREAK_WIDTH, argb, top, bottom);
+			else
+				fillNewPixels(column, row, lastColumn, lastRow, argb, top, bottom);
+			lastColumn = column;
+			lastRow = row;
+		}
+	} // end drawLine
+
+	// Fills the pixels of a square that were not part of the previous, overlapping square.
+	private void fillNewPixels(int column, int row, int lastColumn, int lastRow, int argb,
+			int top, int bottom) {
+		for (int r = Math.max(row, top); r < Math.min(row + STREAK_WIDTH, bottom); r++)
+			for (int c = Math.max(column, 0); c < Math.min(column + STREAK_WIDTH, width); c++)
+				if (c < lastColumn || c >= lastColumn + STREAK_WIDTH
+						|| r < lastRow || r >= lastRow + STREAK_WIDTH)
+					blend(r * width + c, argb);
+	} // end fillNewPixels
+
+	// Fills a square with its top left corner at (column, row) within the rows of a band.
+	private void fillSquare(int column, int row, int size, int argb, int top, int bottom) {
+		for (int r = Math.max(row, top); r < Math.min(row + size, bottom); r++)
+			for (int c = Math.max(column, 0); c < Math.min(column + size, width); c++)
+				blend(r * width + c, argb);
+	} // end fillSquare
+
+	// Adds a colour to a pixel, clamping each channel at 255.
+	private void blend(int offset, int argb) {
+		int old = pixels[offset];
+		int a = Math.min(255, (old >>> 24) + (argb >>> 24));
+		int r = Math.min(255, ((old >> 16) & 0xFF) + ((argb >> 16) & 0xFF));
+		int g = Math.min(255, ((old >> 8) & 0xFF) + ((argb >> 8) & 0xFF));
+		int b = Math.min(255, (old & 0xFF) + (argb & 0xFF));
+		pixels[offset] = (a << 24) | (r << 16) | (g << 8) | b;
+	} // end blend
+
+	// Draws a range of bands, splitting it in half until a single band is left.
+	private class BandTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int firstBand;
+		private final int endBand;
+
+		private BandTask(int firstBand, int endBand) {
+			this.firstBand = firstBand;
+			this.endBand = endBand;
+		} // end Constructor
+
+		@Override
+		protected void compute() {
+			if (endBand - firstBand == 1) {
+				renderBand(firstBand * height / numBands, (firstBand + 1) * height / numBands);
+				return;
+			}
+			int middle = (firstBand + endBand) >>> 1;
+			invokeAll(new BandTask(firstBand, middle), new BandTask(middle, endBand));
+		} // end compute
+
+	} // end BandTask class
+
+} // end SoftwareRasterizer class
@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for the launch of a star from a launch tube.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+@Name("fireworks.StarLaunch")
+@Label("Star Launch")
+@Category("Fireworks")
+@Description("The launch of a star and its streaks")
+public class StarLaunchEvent extends Event {
+
+	@Label("Show Time")
+	@Description("The simulated time of the launch, in seconds")
+	double showTime;
+
+	@Label("Colour")
+	@Description("The palette name of the colour of the star")
+	String colour;
+
+	@Label("Tube X")
+	@Description("The position of the base of the launch tube, in metres")
+	double tubeX;
+
+} // end StarLaunchEvent class
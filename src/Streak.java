@@ -1,5 +1,3 @@
-import javafx.scene.paint.Color;
-
 /**
  * A particle that will be drawn as a line going from the position of the particle
  * to its origin position.
@@ -18,10 +16,10 @@ public class Streak extends Particle {
 	 * @param lifetime The lifetime of the particle in seconds.
 	 * @param mass The mass of the particle in kg.
 	 * @param radius The radius of the particle in metres.
-	 * @param colour The colour of the particle.
+	 * @param colour The palette index of the colour of the particle.
 	 */
 	public Streak(double[] initialPosition, double[] initialVelocity,
-			double creationTime, double lifetime, double mass, double radius, Color colour) {
+			double creationTime, double lifetime, double mass, double radius, int colour) {
 		super(initialPosition, initialVelocity, creationTime, lifetime, mass, radius, colour);
 		origin = initialPosition.clone();
 	} // end full Constructor
@@ -32,9 +30,9 @@ public class Streak extends Particle {
 	 * @param lifetime The lifetime of the particle in seconds.
 	 * @param mass The mass of the particle in kg.
 	 * @param radius The radius of the particle in metres.
-	 * @param colour The colour of the particle.
+	 * @param colour The palette index of the colour of the particle.
 	 */
-	public Streak(double[] position, double lifetime, double mass, double radius, Color colour) {
+	public Streak(double[] position, double lifetime, double mass, double radius, int colour) {
 		super(lifetime, mass, radius, colour);
 		origin = position.clone();
 	} // end Constructor
@@ -45,6 +43,12 @@ public class Streak extends Particle {
 	 */
 	public double[] getOrigin() { return origin.clone(); }
 
+	/**
+	 * An accessor for the kind of the particle, as used by the ParticleStore.
+	 * @return ParticleStore.STREAK.
+	 */
+	public int getKind() { return ParticleStore.STREAK; }
+
 	/**
 	 * A mutator for the origin position of a Streak.
 	 * @param position An array of (x, y) with values in metres.
@@ -60,6 +64,7 @@ public class Streak extends Particle {
 		Streak retStreak = new Streak(origin, getVelocity(), getCreationTime(), getLifetime(),
 				getMass(), getRadius(), getColour());
 		retStreak.setPosition(getPosition());
+		retStreak.setIntegrator(getIntegrator());
 		return retStreak;
 	} // end clone
 
@@ -0,0 +1,69 @@
+/**
+ * Describes one launch tube of a show: where it stands, the angle it is fired at, when it
+ * fires its first star, how long it waits between stars and the colour of each star.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class TubeConfig {
+
+	private final double baseX;				// metres
+	private final double launchAngle;		// degrees
+	private final double startTime;			// sec
+	private final double starDelayTime;		// sec
+	private final int[] starColours;
+
+	/**
+	 * The TubeConfig constructor.
+	 * @param baseX The position of the foot of the tube along the ground in metres.
+	 * @param launchAngle The launch angle in degrees off the vertical.
+	 * @param startTime The absolute time in seconds at which the first star is launched.
+	 * @param starDelayTime The time in seconds between stars.
+	 * @param starColours The palette colour of each star, in launch order.
+	 */
+	public TubeConfig(double baseX, double launchAngle, double startTime, double starDelayTime,
+			int[] starColours) {
+		this.baseX = baseX;
+		this.launchAngle = launchAngle;
+		this.startTime = startTime;
+		this.starDelayTime = starDelayTime;
+		this.starColours = starColours.clone();
+	} // end Constructor
+
+	/**
+	 * An accessor for the position of the tube.
+	 * @return The position of the foot of the tube along the ground in metres.
+	 */
+	public double getBaseX() { return baseX; }
+
+	/**
+	 * An accessor for the launch angle.
+	 * @return The launch angle in degrees off the vertical.
+	 */
+	public double getLaunchAngle() { return launchAngle; }
+
+	/**
+	 * An accessor for the time of the first star.
+	 * @return The absolute time in seconds.
+	 */
+	public double getStartTime() { return startTime; }
+
+	/**
+	 * An accessor for the time between stars.
+	 * @return The delay in seconds.
+	 */
+	public double getStarDelayTime() { return starDelayTime; }
+
+	/**
+	 * An accessor for the number of stars.
+	 * @return The number of stars the tube launches.
+	 */
+	public int getNumStars() { return starColours.length; }
+
+	/**
+	 * An accessor for the colour of one star.
+	 * @param star The number of the star, from 0.
+	 * @return The palette colour index.
+	 */
+	public int getStarColour(int star) { return starColours[star]; }
+
+} // end TubeConfig class
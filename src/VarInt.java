@@ -0,0 +1,82 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads integers in the variable length format used by the frame stream: seven
+ * bits to a byte, lowest bits first, with the top bit of each byte set while more bytes
+ * follow.  Signed values are zigzag encoded first, so that numbers near zero of either
+ * sign take a single byte.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class VarInt {
+
+	/**
+	 * The most bytes a value of up to 35 bits can take.
+	 */
+	public static final int MAX_BYTES = 5;
+
+	/**
+	 * Writes a value, treated as unsigned.
+	 * @param out The ByteBuffer to write to.
+	 * @param value The value.
+	 */
+	public static void put(ByteBuffer out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	} // end put
+
+	/**
+	 * Reads a value written by put().
+	 * @param in The ByteBuffer to read from.
+	 * @return The value.
+	 */
+	public static long get(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; ; shift += 7) {
+			int b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+	} // end get
+
+	/**
+	 * Zigzag encodes a signed value: 0, -1, 1, -2, 2 ... become 0, 1, 2, 3, 4 ...
+	 * @param value The signed value.
+	 * @return The encoded value, never negative for an int.
+	 */
+	public static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	} // end zigzag
+
+	/**
+	 * Undoes zigzag().
+	 * @param value The encoded value.
+	 * @return The signed value.
+	 */
+	public static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	} // end unzigzag
+
+	/**
+	 * Writes a signed value.
+	 * @param out The ByteBuffer to write to.
+	 * @param value The value.
+	 */
+	public static void putSigned(ByteBuffer out, long value) {
+		put(out, zigzag(value));
+	} // end putSigned
+
+	/**
+	 * Reads a signed value written by putSigned().
+	 * @param in The ByteBuffer to read from.
+	 * @return The value.
+	 */
+	public static long getSigned(ByteBuffer in) {
+		return unzigzag(get(in));
+	} // end getSigned
+
+} // end VarInt class
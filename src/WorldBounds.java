@@ -0,0 +1,85 @@
+/**
+ * Describes the part of the world that is shown, and decides which particles have left it
+ * for good.  A particle below the ground can never come back.  A particle beyond the left
+ * or right edge cannot come back either while it and the wind both move away from the
+ * view, since drag only ever pulls its horizontal velocity towards the wind velocity.
+ * Particles above the view fall back into it and are never retired.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class WorldBounds {
+
+	/**
+	 * The bounds of the 900 by 475 pixel canvas drawn at 19 pixels per metre, with the
+	 * launch tube at the middle of the bottom edge.
+	 */
+	public static final WorldBounds CANVAS = new WorldBounds(-450 / 19.0, 450 / 19.0, 0, 475 / 19.0, true);
+
+	private final double minX;					// metres
+	private final double maxX;					// metres
+	private final double groundLevel;			// metres
+	private final double maxY;					// metres
+	private final boolean retireBeyondSides;
+
+	/**
+	 * The WorldBounds constructor.
+	 * @param minX The left edge of the view in metres.
+	 * @param maxX The right edge of the view in metres.
+	 * @param groundLevel The height of the ground, the bottom of the view, in metres.
+	 * @param maxY The top edge of the view in metres.
+	 * @param retireBeyondSides true to also retire particles beyond the left and right
+	 * edges that cannot come back, false to only retire those below the ground.
+	 */
+	public WorldBounds(double minX, double maxX, double groundLevel, double maxY,
+			boolean retireBeyondSides) {
+		this.minX = minX;
+		this.maxX = maxX;
+		this.groundLevel = groundLevel;
+		this.maxY = maxY;
+		this.retireBeyondSides = retireBeyondSides;
+	} // end Constructor
+
+	/**
+	 * Returns true if a particle has left the view and cannot come back with the supplied
+	 * wind.  If the wind changes direction later, a particle beyond the sides could have
+	 * drifted back, so this policy is exact only while the wind keeps its direction.
+	 * @param x The x position in metres.
+	 * @param y The y position in metres.
+	 * @param vx The x velocity in m/sec.
+	 * @param vy The y velocity in m/sec.
+	 * @param wind The wind velocity in m/sec.
+	 * @return true if the particle should be retired.
+	 */
+	public boolean mustRetire(double x, double y, double vx, double vy, double wind) {
+		if (y < groundLevel)
+			return true;
+		if (!retireBeyondSides)
+			return false;
+		return (x > maxX && vx >= 0 && wind >= 0) || (x < minX && vx <= 0 && wind <= 0);
+	} // end mustRetire
+
+	/**
+	 * An accessor for the left edge of the view.
+	 * @return The left edge in metres.
+	 */
+	public double getMinX() { return minX; }
+
+	/**
+	 * An accessor for the right edge of the view.
+	 * @return The right edge in metres.
+	 */
+	public double getMaxX() { return maxX; }
+
+	/**
+	 * An accessor for the height of the ground.
+	 * @return The ground level in metres.
+	 */
+	public double getGroundLevel() { return groundLevel; }
+
+	/**
+	 * An accessor for the top edge of the view.
+	 * @return The top edge in metres.
+	 */
+	public double getMaxY() { return maxY; }
+
+} // end WorldBounds class
@@ -0,0 +1,97 @@
+/**
+ * The checks used by the tests.  Each test class has a main method that runs its tests
+ * through test(), which reports any that fail, and then calls finish(), which exits with
+ * status 1 if any did.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class Assert {
+
+	/**
+	 * One test, which fails by throwing.
+	 */
+	public interface TestCase {
+		void run() throws Exception;
+	} // end TestCase interface
+
+	private static int passed = 0;
+	private static int failed = 0;
+
+	/**
+	 * Runs a test and reports it if it fails.
+	 * @param name The name of the test.
+	 * @param test The test to run.
+	 */
+	public static void test(String name, TestCase test) {
+		try {
+			test.run();
+			passed++;
+		} catch (Exception | AssertionError except) {
+			failed++;
+			System.out.println("FAILED " + name + ": " + except);
+		}
+	} // end test
+
+	/**
+	 * Prints how many tests passed and failed, and exits with status 1 if any failed.
+	 * @param testClass The name of the test class.
+	 */
+	public static void finish(String testClass) {
+		System.out.println(testClass + ": " + passed + " passed, " + failed + " failed");
+		if (failed > 0)
+			System.exit(1);
+	} // end finish
+
+	/**
+	 * Checks that a condition holds.
+	 * @param what What the condition means.
+	 * @param condition The condition.
+	 */
+	public static void isTrue(String what, boolean condition) {
+		if (!condition)
+			throw new AssertionError(what);
+	} // end isTrue
+
+	/**
+	 * Checks that a whole number has the expected value.
+	 * @param what What the number is.
+	 * @param expected The expected value.
+	 * @param actual The value found.
+	 */
+	public static void equal(String what, long expected, long actual) {
+		if (expected != actual)
+			throw new AssertionError(what + ": expected " + expected + ", got " + actual);
+	} // end equal
+
+	/**
+	 * Checks that a number is within a tolerance of the expected value.
+	 * @param what What the number is.
+	 * @param expected The expected value.
+	 * @param actual The value found.
+	 * @param tolerance The largest difference allowed.
+	 */
+	public static void near(String what, double expected, double actual, double tolerance) {
+		if (!(Math.abs(expected - actual) <= tolerance))
+			throw new AssertionError(what + ": expected " + expected + " within " + tolerance
+					+ ", got " + actual);
+	} // end near
+
+	/**
+	 * Checks that a test throws an exception of the supplied class.
+	 * @param what What the test does.
+	 * @param expected The class of exception expected.
+	 * @param test The code that should throw.
+	 * @return The exception thrown.
+	 */
+	public static <T extends Exception> T fails(String what, Class<T> expected, TestCase test) {
+		try {
+			test.run();
+		} catch (Exception except) {
+			if (expected.isInstance(except))
+				return expected.cast(except);
+			throw new AssertionError(what + ": threw " + except);
+		}
+		throw new AssertionError(what + ": did not throw " + expected.getSimpleName());
+	} // end fails
+
+} // end Assert class
@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests that frames written by a FrameEncoder are read back by a FrameDecoder to within
+ * the quantization of the positions: keyframes, frames sent as changes, ids recycled for
+ * new particles, the negative ids given to the tubes of a large ShowEngine, and a frame
+ * that refers to a particle the decoder has not seen.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameCodecTest {
+
+	// Half of a position unit, the most a position may move when it is quantized.
+	private static final double TOLERANCE = 0.5 / FrameEncoder.POSITION_SCALE + 1e-9;	// metres
+
+	public static void main(String[] args) {
+		Assert.test("keyframe", FrameCodecTest::keyframe);
+		Assert.test("delta frames", FrameCodecTest::deltaFrames);
+		Assert.test("recycled id", FrameCodecTest::recycledId);
+		Assert.test("negative and extreme ids", FrameCodecTest::negativeAndExtremeIds);
+		Assert.test("skips until a keyframe", FrameCodecTest::skipsUntilAKeyframe);
+		Assert.test("missing id", FrameCodecTest::missingId);
+		Assert.test("show with more than 128 tubes", FrameCodecTest::showWithManyTubes);
+		Assert.finish("FrameCodecTest");
+	} // end main
+
+	// Makes a frame of particles given as rows of id, x, y, previous x, previous y, origin x,
+	// origin y, kind and colour.
+	private static FrameSnapshot frame(long frameNumber, double time, double[][] particles) {
+		FrameSnapshot snapshot = new FrameSnapshot();
+		snapshot.begin(frameNumber, time, particles.length);
+		for (int index = 0; index < particles.length; index++) {
+			double[] p = particles[index];
+			snapshot.set(index, p[1], p[2], p[3], p[4], p[5], p[6], (int) p[7], (int) p[8], (int) p[0]);
+		}
+		return snapshot;
+	} // end frame
+
+	// Encodes a frame, checks its length and decodes it.
+	private static FrameSnapshot roundTrip(FrameEncoder encoder, FrameDecoder decoder,
+			FrameSnapshot snapshot, boolean keyframe) throws IOException {
+		ByteBuffer encoded = encoder.encode(snapshot, keyframe);
+		Assert.equal("frame length", encoded.remaining() - 4, encoded.getInt());
+		FrameSnapshot decoded = new FrameSnapshot();
+		Assert.isTrue("frame decoded", decoder.decode(encoded, decoded));
+		Assert.equal("bytes left", 0, encoded.remaining());
+		return decoded;
+	} // end roundTrip
+
+	// Checks that a decoded frame matches the original.  The previous positions are only
+	// checked if asked, since a new particle is given its current position as its previous.
+	private static void assertSame(FrameSnapshot expected, FrameSnapshot actual, boolean previous) {
+		Assert.equal("frame number", expected.getFrameNumber(), actual.getFrameNumber());
+		Assert.near("time", expected.getTime(), actual.getTime(), 0);
+		Assert.equal("size", expected.size(), actual.size());
+		for (int index = 0; index < expected.size(); index++) {
+			Assert.equal("id", expected.getId(index), actual.getId(index));
+			Assert.equal("kind", expected.getKind(index), actual.getKind(index));
+			Assert.equal("colour", expected.getColour(index), actual.getColour(index));
+			Assert.near("x", expected.getX(index), actual.getX(index), TOLERANCE);
+			Assert.near("y", expected.getY(index), actual.getY(index), TOLERANCE);
+			Assert.near("origin x", expected.getOriginX(index), actual.getOriginX(index), TOLERANCE);
+			Assert.near("origin y", expected.getOriginY(index), actual.getOriginY(index), TOLERANCE);
+			if (previous) {
+				Assert.near("previous x", expected.getPreviousX(index), actual.getPreviousX(index),
+						TOLERANCE);
+				Assert.near("previous y", expected.getPreviousY(index), actual.getPreviousY(index),
+						TOLERANCE);
+			}
+		}
+	} // end assertSame
+
+	private static void keyframe() throws IOException {
+		FrameSnapshot snapshot = frame(7, 1.25, new double[][] {
+			{0, 1.0, 2.0, 1.0, 2.0, 0, 0, ParticleStore.SPARK, 3},
+			{4, -12.3456, 0.001, -12.3456, 0.001, -10, 5, ParticleStore.STREAK, 15},
+			{2, 300.7, 150.2, 300.7, 150.2, 300, 150, ParticleStore.STAR, 0}});
+		FrameEncoder encoder = new FrameEncoder();
+		assertSame(snapshot, roundTrip(encoder, new FrameDecoder(), snapshot, true), true);
+		Assert.equal("full particles", 3, encoder.getNumFull());
+		Assert.equal("delta particles", 0, encoder.getNumDelta());
+	} // end keyframe
+
+	private static void deltaFrames() throws IOException {
+		FrameEncoder encoder = new FrameEncoder();
+		FrameDecoder decoder = new FrameDecoder();
+		double[] x = {0, 5, -5};
+		double[] y = {10, 20, 30};
+		for (int frameNumber = 0; frameNumber < 20; frameNumber++) {
+			double[][] particles = new double[3][];
+			for (int index = 0; index < 3; index++) {
+				double lastX = x[index];
+				double lastY = y[index];
+				x[index] += 0.1 * (index + 1);
+				y[index] -= 0.37;
+				particles[index] = new double[] {10 + index, x[index], y[index], lastX, lastY, 0, 0,
+					ParticleStore.SPARK, index};
+			}
+			FrameSnapshot snapshot = frame(frameNumber, frameNumber / 60.0, particles);
+			boolean keyframe = frameNumber % 8 == 0;
+			assertSame(snapshot, roundTrip(encoder, decoder, snapshot, keyframe), !keyframe);
+		}
+		Assert.equal("full particles", 9, encoder.getNumFull());
+		Assert.equal("delta particles", 51, encoder.getNumDelta());
+	} // end deltaFrames
+
+	private static void recycledId() throws IOException {
+		FrameEncoder encoder = new FrameEncoder();
+		FrameDecoder decoder = new FrameDecoder();
+		FrameSnapshot first = frame(0, 0, new double[][] {
+			{3, 1, 1, 1, 1, 0, 0, ParticleStore.SPARK, 2},
+			{5, 4, 4, 4, 4, 4, 4, ParticleStore.STAR, 1}});
+		assertSame(first, roundTrip(encoder, decoder, first, true), true);
+		// Id 5 now belongs to a new streak elsewhere, and id 3 to a spark that has just
+		// been launched from where the old one was.
+		FrameSnapshot second = frame(1, 0.1, new double[][] {
+			{3, 1.5, 1.5, 1, 1, 1, 1, ParticleStore.SPARK, 2},
+			{5, -8, 9, -8, 9, -8, 9, ParticleStore.STREAK, 6}});
+		assertSame(second, roundTrip(encoder, decoder, second, false), false);
+		Assert.equal("full particles", 4, encoder.getNumFull());
+	} // end recycledId
+
+	private static void negativeAndExtremeIds() throws IOException {
+		FrameEncoder encoder = new FrameEncoder();
+		FrameDecoder decoder = new FrameDecoder();
+		int[] ids = {Integer.MAX_VALUE, Integer.MIN_VALUE, 200 << 24, 17, -1, (255 << 24) | 12, 0};
+		for (int frameNumber = 0; frameNumber < 4; frameNumber++) {
+			double[][] particles = new double[ids.length][];
+			for (int index = 0; index < ids.length; index++)
+				particles[index] = new double[] {ids[index], index + frameNumber * 0.5, -index,
+					index + (frameNumber - 1) * 0.5, -index, index, 0, ParticleStore.SPARK, 1};
+			FrameSnapshot snapshot = frame(frameNumber, frameNumber, particles);
+			assertSame(snapshot, roundTrip(encoder, decoder, snapshot, frameNumber == 0),
+					frameNumber > 0);
+		}
+		Assert.equal("delta particles", 3 * ids.length, encoder.getNumDelta());
+	} // end negativeAndExtremeIds
+
+	private static void skipsUntilAKeyframe() throws IOException {
+		FrameEncoder encoder = new FrameEncoder();
+		FrameSnapshot snapshot = frame(0, 0, new double[][] {{1, 1, 1, 1, 1, 1, 1, 0, 0}});
+		ByteBuffer encoded = encoder.encode(snapshot, false);
+		encoded.getInt();
+		Assert.isTrue("delta frame skipped", !new FrameDecoder().decode(encoded, new FrameSnapshot()));
+	} // end skipsUntilAKeyframe
+
+	private static void missingId() throws IOException {
+		FrameEncoder encoder = new FrameEncoder();
+		FrameSnapshot first = frame(0, 0, new double[][] {{1, 1, 1, 1, 1, 1, 1, 0, 0}});
+		FrameSnapshot second = frame(1, 0.1, new double[][] {{1, 2, 2, 1, 1, 1, 1, 0, 0}});
+		encoder.encode(first, true);
+		// The decoder never saw the keyframe, so it has no particle 1 to move.
+		FrameDecoder decoder = new FrameDecoder();
+		FrameSnapshot other = frame(0, 0, new double[][] {{7, 1, 1, 1, 1, 1, 1, 0, 0}});
+		roundTrip(new FrameEncoder(), decoder, other, true);
+		ByteBuffer encoded = encoder.encode(second, false);
+		encoded.getInt();
+		IOException except = Assert.fails("decoding a missing id", IOException.class,
+				() -> decoder.decode(encoded, new FrameSnapshot()));
+		Assert.isTrue("names the particle", except.getMessage().startsWith("Particle 1 of frame 1"));
+		Assert.isTrue("waits for a keyframe", !decoder.decode(encoder.encode(second, false).position(4),
+				new FrameSnapshot()));
+		Assert.isTrue("keyframe decoded", decoder.decode(encoder.encode(second, true).position(4),
+				new FrameSnapshot()));
+	} // end missingId
+
+	private static void showWithManyTubes() throws Exception {
+		TubeConfig[] configs = new TubeConfig[130];
+		for (int index = 0; index < configs.length; index++)
+			configs[index] = new TubeConfig(index - 65, 0, 0.01 * index, 0.5, new int[] {index % 8});
+		ShowEngine engine = new ShowEngine(5, configs, 42);
+		FrameEncoder encoder = new FrameEncoder();
+		FrameDecoder decoder = new FrameDecoder();
+		boolean negativeIds = false;
+		for (int step = 1; step <= 90; step++) {
+			engine.step(step * SimulationThread.TIME_STEP);
+			FrameSnapshot snapshot = engine.getSnapshot();
+			assertSame(snapshot, roundTrip(encoder, decoder, snapshot, step % 30 == 1), false);
+			for (int index = 0; index < snapshot.size() && !negativeIds; index++)
+				negativeIds = snapshot.getId(index) < 0;
+		}
+		Assert.isTrue("tubes from 128 on have negative ids", negativeIds);
+		Assert.isTrue("most particles sent as changes", encoder.getNumDelta() > encoder.getNumFull());
+	} // end showWithManyTubes
+
+} // end FrameCodecTest class
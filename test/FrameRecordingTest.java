@@ -0,0 +1,227 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Tests that frames written by a FrameRecorder are read back by a FrameRecording to within
+ * the quantization of the positions, across the pieces in which the file is written, and
+ * that a ReplaySimulation plays them at their times.  Each test writes a temporary file.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameRecordingTest {
+
+	// Half of a position unit, the most a position may move when it is recorded.
+	private static final double TOLERANCE = 0.5 / FrameRecorder.POSITION_SCALE + 1e-9;	// metres
+	// The furthest from 0 a recorded position can be.
+	private static final double LIMIT = (double) Short.MAX_VALUE / FrameRecorder.POSITION_SCALE;	// metres
+
+	public static void main(String[] args) {
+		Assert.test("frames", FrameRecordingTest::frames);
+		Assert.test("positions are clamped", FrameRecordingTest::positionsAreClamped);
+		Assert.test("show", FrameRecordingTest::show);
+		Assert.test("more than one piece", FrameRecordingTest::moreThanOnePiece);
+		Assert.test("empty recording", FrameRecordingTest::emptyRecording);
+		Assert.test("bad files", FrameRecordingTest::badFiles);
+		Assert.test("replay", FrameRecordingTest::replay);
+		Assert.finish("FrameRecordingTest");
+	} // end main
+
+	// Makes a frame of count particles that differ with the frame and the index.
+	private static FrameSnapshot frame(int frameNumber, int count) {
+		FrameSnapshot snapshot = new FrameSnapshot();
+		snapshot.begin(frameNumber, frameNumber * 0.1, count);
+		for (int index = 0; index < count; index++) {
+			double x = (index % 200 - 100) * 0.37 + frameNumber * 0.01;
+			double y = index % 97 + frameNumber * 0.02;
+			snapshot.set(index, x, y, x - 0.01, y - 0.02, x / 2, 0, index % 3, index % 16,
+					index - count / 2);
+		}
+		return snapshot;
+	} // end frame
+
+	// Records the supplied frames into a new temporary file and returns its path.
+	private static Path record(FrameSnapshot... frames) throws IOException {
+		Path file = Files.createTempFile("recording", ".fwrc");
+		try (FrameRecorder recorder = new FrameRecorder(file)) {
+			for (FrameSnapshot frame : frames)
+				recorder.record(frame);
+			Assert.equal("frames recorded", frames.length, recorder.getNumFrames());
+		}
+		return file;
+	} // end record
+
+	// Checks that a frame read back matches the one recorded.
+	private static void assertSame(FrameSnapshot expected, FrameSnapshot actual) {
+		Assert.near("time", expected.getTime(), actual.getTime(), 0);
+		Assert.equal("size", expected.size(), actual.size());
+		for (int index = 0; index < expected.size(); index++) {
+			Assert.equal("id", expected.getId(index), actual.getId(index));
+			Assert.equal("kind", expected.getKind(index), actual.getKind(index));
+			Assert.equal("colour", expected.getColour(index), actual.getColour(index));
+			Assert.near("x", expected.getX(index), actual.getX(index), TOLERANCE);
+			Assert.near("y", expected.getY(index), actual.getY(index), TOLERANCE);
+			Assert.near("previous x", expected.getPreviousX(index), actual.getPreviousX(index), TOLERANCE);
+			Assert.near("previous y", expected.getPreviousY(index), actual.getPreviousY(index), TOLERANCE);
+			Assert.near("origin x", expected.getOriginX(index), actual.getOriginX(index), TOLERANCE);
+			Assert.near("origin y", expected.getOriginY(index), actual.getOriginY(index), TOLERANCE);
+		}
+	} // end assertSame
+
+	private static void frames() throws IOException {
+		FrameSnapshot[] frames = new FrameSnapshot[5];
+		for (int frame = 0; frame < frames.length; frame++)
+			frames[frame] = frame(frame, 50 * frame);
+		Path file = record(frames);
+		try {
+			FrameRecording recording = new FrameRecording(file);
+			Assert.equal("frames", frames.length, recording.getNumFrames());
+			FrameSnapshot snapshot = new FrameSnapshot();
+			// Read out of order, as when a replay is wound back.
+			for (int frame = frames.length - 1; frame >= 0; frame--) {
+				Assert.near("time", frames[frame].getTime(), recording.getTime(frame), 0);
+				recording.read(frame, snapshot);
+				Assert.equal("frame number", frame, snapshot.getFrameNumber());
+				assertSame(frames[frame], snapshot);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	} // end frames
+
+	private static void positionsAreClamped() throws IOException {
+		FrameSnapshot frame = new FrameSnapshot();
+		frame.begin(0, 0, 1);
+		frame.set(0, 500, -500, 127.9, -127.9, 0, 0, ParticleStore.STAR, 15, Integer.MIN_VALUE);
+		Path file = record(frame);
+		try {
+			FrameSnapshot snapshot = new FrameSnapshot();
+			new FrameRecording(file).read(0, snapshot);
+			Assert.near("x", LIMIT, snapshot.getX(0), TOLERANCE);
+			Assert.near("y", -LIMIT, snapshot.getY(0), 1.0 / FrameRecorder.POSITION_SCALE);
+			Assert.near("previous x", 127.9, snapshot.getPreviousX(0), TOLERANCE);
+			Assert.near("previous y", -127.9, snapshot.getPreviousY(0), TOLERANCE);
+			Assert.equal("kind", ParticleStore.STAR, snapshot.getKind(0));
+			Assert.equal("colour", 15, snapshot.getColour(0));
+			Assert.equal("id", Integer.MIN_VALUE, snapshot.getId(0));
+		} finally {
+			Files.delete(file);
+		}
+	} // end positionsAreClamped
+
+	private static void show() throws Exception {
+		// The same seed gives the same show, so a second run is compared with the recording.
+		Path file = Files.createTempFile("recording", ".fwrc");
+		try {
+			ParticleManager manager = new ParticleManager(5, 4, 11);
+			manager.start(0);
+			try (FrameRecorder recorder = new FrameRecorder(file)) {
+				for (int step = 1; step <= 240; step++) {
+					manager.step(step * SimulationThread.TIME_STEP);
+					recorder.record(manager.getSnapshot());
+				}
+			}
+			FrameRecording recording = new FrameRecording(file);
+			Assert.equal("frames", 240, recording.getNumFrames());
+			manager = new ParticleManager(5, 4, 11);
+			manager.start(0);
+			FrameSnapshot snapshot = new FrameSnapshot();
+			for (int step = 1; step <= 240; step++) {
+				manager.step(step * SimulationThread.TIME_STEP);
+				recording.read(step - 1, snapshot);
+				assertSame(manager.getSnapshot(), snapshot);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	} // end show
+
+	private static void moreThanOnePiece() throws IOException {
+		// 110 frames of 10000 particles are more than the 16 MB written at a time.
+		FrameSnapshot[] frames = new FrameSnapshot[110];
+		for (int frame = 0; frame < frames.length; frame++)
+			frames[frame] = frame(frame, 10000);
+		Path file = record(frames);
+		try {
+			Assert.equal("file length", FrameRecorder.HEADER_BYTES + frames.length
+					* (FrameRecorder.FRAME_HEADER_BYTES + 10000 * FrameRecorder.PARTICLE_BYTES),
+					Files.size(file));
+			FrameRecording recording = new FrameRecording(file);
+			FrameSnapshot snapshot = new FrameSnapshot();
+			for (int frame = 0; frame < frames.length; frame++) {
+				recording.read(frame, snapshot);
+				assertSame(frames[frame], snapshot);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	} // end moreThanOnePiece
+
+	private static void emptyRecording() throws IOException {
+		Path file = record();
+		try {
+			Assert.equal("file length", FrameRecorder.HEADER_BYTES, Files.size(file));
+			Assert.equal("frames", 0, new FrameRecording(file).getNumFrames());
+		} finally {
+			Files.delete(file);
+		}
+	} // end emptyRecording
+
+	private static void badFiles() throws IOException {
+		Path file = record(frame(0, 10), frame(1, 10));
+		try {
+			byte[] bytes = Files.readAllBytes(file);
+			Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+			IOException except = Assert.fails("reading a cut recording", IOException.class,
+					() -> new FrameRecording(file));
+			Assert.isTrue("cut short", except.getMessage().startsWith("Recording is cut short"));
+			Files.write(file, "not a recording at all".getBytes());
+			except = Assert.fails("reading another file", IOException.class,
+					() -> new FrameRecording(file));
+			Assert.isTrue("not a recording", except.getMessage().startsWith("Not a recording"));
+			// A header claiming more frames than the file holds, and particle counts far past
+			// the end of the file and below zero.
+			bytes[11]++;
+			Files.write(file, bytes);
+			except = Assert.fails("reading a missing frame", IOException.class,
+					() -> new FrameRecording(file));
+			Assert.isTrue("cut short", except.getMessage().startsWith("Recording is cut short"));
+			bytes[11]--;
+			int count = FrameRecorder.HEADER_BYTES + 8;
+			bytes[count] = 0x7F;
+			Files.write(file, bytes);
+			except = Assert.fails("reading a huge frame", IOException.class,
+					() -> new FrameRecording(file));
+			Assert.isTrue("cut short", except.getMessage().startsWith("Recording is cut short"));
+			bytes[count] = (byte) 0x80;
+			Files.write(file, bytes);
+			except = Assert.fails("reading a negative count", IOException.class,
+					() -> new FrameRecording(file));
+			Assert.isTrue("bad count", except.getMessage().startsWith("Bad particle count"));
+		} finally {
+			Files.delete(file);
+		}
+	} // end badFiles
+
+	private static void replay() throws IOException {
+		FrameSnapshot[] frames = new FrameSnapshot[4];
+		for (int frame = 0; frame < frames.length; frame++)
+			frames[frame] = frame(frame, 3);
+		Path file = record(frames);
+		try {
+			ReplaySimulation replay = new ReplaySimulation(new FrameRecording(file));
+			replay.step(0.05);
+			Assert.equal("first frame", 0, replay.getSnapshot().getFrameNumber());
+			replay.step(0.25);
+			Assert.equal("latest frame due", 2, replay.getSnapshot().getFrameNumber());
+			Assert.isTrue("not finished", !replay.isFinished());
+			replay.step(1);
+			assertSame(frames[3], replay.getSnapshot());
+			Assert.isTrue("finished", replay.isFinished());
+		} finally {
+			Files.delete(file);
+		}
+	} // end replay
+
+} // end FrameRecordingTest class
@@ -0,0 +1,55 @@
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Tests that a FrameServer keeps publishing to a viewer that reads its frames while
+ * another viewer never reads, and that the viewer that never reads is dropped.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class FrameServerTest {
+
+	private static final long TIMEOUT_MILLIS = 60000;
+
+	public static void main(String[] args) {
+		Assert.test("viewer that never reads", FrameServerTest::viewerThatNeverReads);
+		Assert.finish("FrameServerTest");
+	} // end main
+
+	private static void viewerThatNeverReads() throws Exception {
+		// Enough tubes that each frame is tens of kilobytes, so the stalled viewer's socket
+		// is soon full.
+		TubeConfig[] configs = new TubeConfig[40];
+		for (int index = 0; index < configs.length; index++)
+			configs[index] = new TubeConfig(index - 20, 0, 0.01 * index, 0.5, new int[] {index % 8});
+		ShowEngine engine = new ShowEngine(0, configs, 42);
+		FrameServer server = new FrameServer(engine, 0);
+		InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+				server.getPort());
+		SocketChannel stalled = SocketChannel.open();
+		stalled.socket().setReceiveBufferSize(4096);
+		stalled.connect(address);
+		RemoteSimulation reader = new RemoteSimulation(address.getHostString(), address.getPort());
+		Thread publisher = new Thread(server::run, "publisher");
+		try {
+			server.start();
+			publisher.start();
+			publisher.join(TIMEOUT_MILLIS);
+			Assert.isTrue("show published to the end", !publisher.isAlive());
+			Assert.equal("viewers dropped", 1, server.getNumDropped());
+			long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+			while (!reader.isFinished() && System.currentTimeMillis() < deadline)
+				Thread.sleep(10);
+			Assert.isTrue("reader disconnected at the end", reader.isFinished());
+			long lastFrame = engine.getSnapshot().getFrameNumber();
+			long lastRead = reader.getSnapshot().getFrameNumber();
+			Assert.isTrue("reader kept up: read " + lastRead + " of " + lastFrame,
+					lastRead >= lastFrame - FrameServer.KEYFRAME_INTERVAL);
+		} finally {
+			stalled.close();
+			server.close();
+		}
+	} // end viewerThatNeverReads
+
+} // end FrameServerTest class
@@ -0,0 +1,164 @@
+/**
+ * Tests the particle budget of a ParticleStore: sparks refused or evicted at the budget,
+ * the counts of each, stars and streaks kept over it, and a ParticleManager show held
+ * under a budget.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ParticleBudgetTest {
+
+	private static final Particle SPARK = new Particle(1.0, 0.0003, 0.001, 0);
+	private static final Streak STREAK = new Streak(new double[2], 1.0, 0.0003, 0.001, 0);
+	private static final BurningParticle STAR = new BurningParticle(0.008, 0, 0.003, 1900);
+
+	public static void main(String[] args) {
+		Assert.test("no budget", ParticleBudgetTest::noBudget);
+		Assert.test("sparks throttled", ParticleBudgetTest::sparksThrottled);
+		Assert.test("oldest sparks evicted", ParticleBudgetTest::oldestSparksEvicted);
+		Assert.test("dead sparks not evicted", ParticleBudgetTest::deadSparksNotEvicted);
+		Assert.test("stars kept over the budget", ParticleBudgetTest::starsKeptOverTheBudget);
+		Assert.test("budget removed", ParticleBudgetTest::budgetRemoved);
+		Assert.test("show under a budget", ParticleBudgetTest::showUnderABudget);
+		Assert.finish("ParticleBudgetTest");
+	} // end main
+
+	// Adds a spark at the supplied x position.
+	private static int addSpark(ParticleStore store, double x) {
+		return store.add(SPARK, 0, x, 10, 0, 0, 0);
+	} // end addSpark
+
+	private static void noBudget() {
+		ParticleStore store = new ParticleStore(4);
+		for (int index = 0; index < 1000; index++)
+			Assert.isTrue("added", addSpark(store, index) >= 0);
+		Assert.equal("budget", ParticleStore.NO_BUDGET, store.getBudget());
+		Assert.near("pressure", 0, store.getBudgetPressure(), 0);
+		Assert.equal("throttled", 0, store.getNumThrottled());
+		Assert.equal("evicted", 0, store.getNumEvicted());
+	} // end noBudget
+
+	private static void sparksThrottled() {
+		ParticleStore store = new ParticleStore();
+		store.setBudget(5, false);
+		for (int index = 0; index < 5; index++)
+			Assert.equal("slot", index, addSpark(store, index));
+		Assert.near("pressure", 1, store.getBudgetPressure(), 0);
+		for (int index = 5; index < 8; index++)
+			Assert.equal("refused", -1, addSpark(store, index));
+		Assert.equal("size", 5, store.size());
+		Assert.equal("throttled", 3, store.getNumThrottled());
+		Assert.equal("evicted", 0, store.getNumEvicted());
+		store.kill(0);
+		Assert.isTrue("room again", addSpark(store, 9) >= 0);
+		Assert.equal("throttled", 3, store.getNumThrottled());
+	} // end sparksThrottled
+
+	private static void oldestSparksEvicted() {
+		ParticleStore store = new ParticleStore();
+		store.setBudget(3, true);
+		for (int index = 0; index < 10; index++)
+			Assert.isTrue("added", addSpark(store, index) >= 0);
+		Assert.equal("size", 3, store.size());
+		Assert.equal("evicted", 7, store.getNumEvicted());
+		Assert.equal("throttled", 0, store.getNumThrottled());
+		double sum = 0;
+		for (int slot = 0; slot < store.size(); slot++)
+			sum += store.getX(slot);
+		Assert.near("the newest kept", 7 + 8 + 9, sum, 0);
+	} // end oldestSparksEvicted
+
+	private static void deadSparksNotEvicted() {
+		ParticleStore store = new ParticleStore();
+		store.setBudget(3, true);
+		long first = store.getHandle(addSpark(store, 0));
+		addSpark(store, 1);
+		addSpark(store, 2);
+		store.kill(store.slotOfHandle(first));
+		addSpark(store, 3);
+		Assert.equal("room left by the dead spark", 0, store.getNumEvicted());
+		// The dead spark's id is reused, but it must not be taken for the oldest spark.
+		addSpark(store, 4);
+		Assert.equal("evicted", 1, store.getNumEvicted());
+		double sum = 0;
+		for (int slot = 0; slot < store.size(); slot++)
+			sum += store.getX(slot);
+		Assert.near("the oldest live spark evicted", 2 + 3 + 4, sum, 0);
+	} // end deadSparksNotEvicted
+
+	private static void starsKeptOverTheBudget() {
+		ParticleStore store = new ParticleStore();
+		store.setBudget(3, false);
+		addSpark(store, 0);
+		addSpark(store, 1);
+		addSpark(store, 2);
+		// A star takes the place of the oldest spark even when sparks are only refused.
+		Assert.isTrue("star added", store.add(STAR, 0, 0, 0, 0, 0, 0) >= 0);
+		Assert.equal("evicted for the star", 1, store.getNumEvicted());
+		Assert.equal("size", 3, store.size());
+		Assert.isTrue("streak added", store.add(STREAK, 0, 0, 0, 0, 0, 0) >= 0);
+		Assert.isTrue("star added", store.add(STAR, 0, 0, 0, 0, 0, 0) >= 0);
+		Assert.equal("evicted", 3, store.getNumEvicted());
+		Assert.equal("sparks", 0, store.getNumOfKind(ParticleStore.SPARK));
+		// With no sparks left, stars and streaks go over the budget and sparks are refused.
+		Assert.isTrue("streak added", store.add(STREAK, 0, 0, 0, 0, 0, 0) >= 0);
+		Assert.equal("size", 4, store.size());
+		Assert.near("pressure", 4.0 / 3, store.getBudgetPressure(), 1e-12);
+		store.setBudget(3, true);
+		Assert.equal("spark refused", -1, addSpark(store, 5));
+		Assert.equal("throttled", 1, store.getNumThrottled());
+		Assert.equal("evicted", 3, store.getNumEvicted());
+	} // end starsKeptOverTheBudget
+
+	private static void budgetRemoved() {
+		ParticleStore store = new ParticleStore();
+		store.setBudget(2, true);
+		for (int index = 0; index < 4; index++)
+			addSpark(store, index);
+		store.setBudget(ParticleStore.NO_BUDGET, true);
+		for (int index = 4; index < 10; index++)
+			addSpark(store, index);
+		Assert.equal("size", 8, store.size());
+		Assert.equal("evicted", 2, store.getNumEvicted());
+		Assert.near("pressure", 0, store.getBudgetPressure(), 0);
+	} // end budgetRemoved
+
+	// Runs a show to the end and returns the most particles alive at once and the most
+	// stars alive at once.
+	private static int[] runShow(ParticleManager manager) {
+		int mostParticles = 0;
+		int mostStars = 0;
+		int step = 0;
+		while (!manager.isFinished()) {
+			manager.step(++step * SimulationThread.TIME_STEP);
+			ParticleStore store = manager.getStore();
+			mostParticles = Math.max(mostParticles, store.size());
+			mostStars = Math.max(mostStars, store.getNumOfKind(ParticleStore.STAR));
+		}
+		return new int[] {mostParticles, mostStars};
+	} // end runShow
+
+	private static void showUnderABudget() throws Exception {
+		ParticleManager free = new ParticleManager(0, 0, 5);
+		free.start(0);
+		int[] unlimited = runShow(free);
+		Assert.equal("nothing shed without a budget", 0, free.getParticlesShed());
+		int budget = unlimited[0] / 2;
+		for (boolean evict : new boolean[] {false, true}) {
+			ParticleManager limited = new ParticleManager(0, 0, 5);
+			limited.setParticleBudget(budget, evict);
+			limited.start(0);
+			int[] result = runShow(limited);
+			ParticleStore store = limited.getStore();
+			Assert.isTrue("held to the budget", result[0] <= budget);
+			Assert.equal("every star launched", unlimited[1], result[1]);
+			Assert.isTrue("sparks shed", limited.getParticlesShed() > 0);
+			Assert.equal("shed", store.getNumThrottled() + store.getNumEvicted(),
+					limited.getParticlesShed());
+			if (evict)
+				Assert.isTrue("sparks evicted", store.getNumEvicted() > 0);
+			else
+				Assert.isTrue("sparks refused", store.getNumThrottled() > 0);
+		}
+	} // end showUnderABudget
+
+} // end ParticleBudgetTest class
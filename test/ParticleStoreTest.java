@@ -0,0 +1,203 @@
+import java.util.Arrays;
+
+/**
+ * Tests ParticleStore: adding and killing particles, handles that go stale when an id is
+ * reused, the swap with the last slot on removal, and the retirement of dead particles by
+ * its ExpiryWheel.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ParticleStoreTest {
+
+	private static final Particle SPARK = new Particle(1.0, 0.0003, 0.001, 0);
+	private static final Streak STREAK = new Streak(new double[2], 1.0, 0.0003, 0.001, 0);
+	private static final BurningParticle STAR = new BurningParticle(0.008, 0, 0.003, 1900);
+
+	public static void main(String[] args) {
+		Assert.test("add fills slots in order", ParticleStoreTest::addFillsSlotsInOrder);
+		Assert.test("kill counts each kind", ParticleStoreTest::killCountsEachKind);
+		Assert.test("kill moves the last particle", ParticleStoreTest::killMovesTheLastParticle);
+		Assert.test("handle goes stale after reuse", ParticleStoreTest::handleGoesStaleAfterReuse);
+		Assert.test("ids are reused", ParticleStoreTest::idsAreReused);
+		Assert.test("removeDead removes the dead", ParticleStoreTest::removeDeadRemovesTheDead);
+		Assert.test("removeDead keeps the lifetime", ParticleStoreTest::removeDeadKeepsTheLifetime);
+		Assert.test("removeDead skips killed particles", ParticleStoreTest::removeDeadSkipsKilled);
+		Assert.test("wheel follows long lives", ParticleStoreTest::wheelFollowsLongLives);
+		Assert.test("wheel survives a jump in time", ParticleStoreTest::wheelSurvivesAJump);
+		Assert.finish("ParticleStoreTest");
+	} // end main
+
+	// Adds a spark at the supplied x position, with the supplied lifetime.
+	private static int addSpark(ParticleStore store, double x, double lifetime, double time) {
+		Particle spark = new Particle(lifetime, 0.0003, 0.001, 0);
+		return store.add(spark, 0, x, 10, 0, 0, time);
+	} // end addSpark
+
+	// Returns the x positions of every particle in the store, sorted.
+	private static double[] sortedX(ParticleStore store) {
+		double[] xs = new double[store.size()];
+		for (int slot = 0; slot < xs.length; slot++)
+			xs[slot] = store.getX(slot);
+		Arrays.sort(xs);
+		return xs;
+	} // end sortedX
+
+	private static void addFillsSlotsInOrder() {
+		ParticleStore store = new ParticleStore(2);
+		for (int index = 0; index < 5; index++)
+			Assert.equal("slot", index, store.add(SPARK, 3, index, 2 * index, 1, -1, 0.5));
+		Assert.equal("size", 5, store.size());
+		Assert.near("x", 4, store.getX(4), 0);
+		Assert.near("y", 8, store.getY(4), 0);
+		Assert.near("origin x", 4, store.getOriginX(4), 0);
+		Assert.near("creation time", 0.5, store.getCreationTime(4), 0);
+		Assert.equal("colour", 3, store.getColour(4));
+		Assert.equal("kind", ParticleStore.SPARK, store.getKind(4));
+		for (int slot = 0; slot < 5; slot++)
+			Assert.equal("slot of id", slot, store.slotOf(store.getId(slot)));
+	} // end addFillsSlotsInOrder
+
+	private static void killCountsEachKind() {
+		ParticleStore store = new ParticleStore();
+		store.add(SPARK, 0, 0, 0, 0, 0, 0);
+		store.add(STREAK, 0, 0, 0, 0, 0, 0);
+		store.add(STAR, 0, 0, 0, 0, 0, 0);
+		store.add(SPARK, 0, 0, 0, 0, 0, 0);
+		Assert.equal("sparks", 2, store.getNumOfKind(ParticleStore.SPARK));
+		Assert.equal("streaks", 1, store.getNumOfKind(ParticleStore.STREAK));
+		Assert.equal("stars", 1, store.getNumOfKind(ParticleStore.STAR));
+		store.kill(2);
+		store.kill(0);
+		Assert.equal("size", 2, store.size());
+		Assert.equal("sparks", 1, store.getNumOfKind(ParticleStore.SPARK));
+		Assert.equal("streaks", 1, store.getNumOfKind(ParticleStore.STREAK));
+		Assert.equal("stars", 0, store.getNumOfKind(ParticleStore.STAR));
+	} // end killCountsEachKind
+
+	private static void killMovesTheLastParticle() {
+		ParticleStore store = new ParticleStore();
+		long[] handles = new long[4];
+		for (int index = 0; index < 4; index++)
+			handles[index] = store.getHandle(addSpark(store, index, 1, 0));
+		store.kill(1);
+		Assert.equal("size", 3, store.size());
+		Assert.near("last particle moved into the slot", 3, store.getX(1), 0);
+		Assert.equal("moved handle", 1, store.slotOfHandle(handles[3]));
+		Assert.equal("killed handle", -1, store.slotOfHandle(handles[1]));
+		Assert.equal("first handle", 0, store.slotOfHandle(handles[0]));
+		Assert.equal("third handle", 2, store.slotOfHandle(handles[2]));
+		store.kill(2);
+		Assert.equal("killing the last slot moves nothing", 2, store.size());
+		Assert.near("x", 0, store.getX(0), 0);
+		Assert.near("x", 3, store.getX(1), 0);
+	} // end killMovesTheLastParticle
+
+	private static void handleGoesStaleAfterReuse() {
+		ParticleStore store = new ParticleStore();
+		int slot = addSpark(store, 1, 1, 0);
+		int firstId = store.getId(slot);
+		long handle = store.getHandle(slot);
+		store.kill(slot);
+		Assert.equal("dead handle", -1, store.slotOfHandle(handle));
+		Assert.equal("dead id", -1, store.slotOf(firstId));
+		slot = addSpark(store, 2, 1, 0);
+		Assert.equal("id reused", firstId, store.getId(slot));
+		Assert.equal("old handle stays dead", -1, store.slotOfHandle(handle));
+		Assert.isTrue("new handle differs", store.getHandle(slot) != handle);
+		Assert.equal("new handle", slot, store.slotOfHandle(store.getHandle(slot)));
+		Assert.equal("handle of an id never used", -1, store.slotOfHandle(1000));
+	} // end handleGoesStaleAfterReuse
+
+	private static void idsAreReused() {
+		ParticleStore store = new ParticleStore();
+		for (int index = 0; index < 10; index++)
+			addSpark(store, index, 1, 0);
+		Assert.equal("misses", 10, store.getPoolMisses());
+		store.clear();
+		Assert.equal("size after clear", 0, store.size());
+		for (int index = 0; index < 10; index++)
+			addSpark(store, index, 1, 0);
+		Assert.equal("hits", 10, store.getPoolHits());
+		Assert.equal("misses", 10, store.getPoolMisses());
+	} // end idsAreReused
+
+	private static void removeDeadRemovesTheDead() {
+		ParticleStore store = new ParticleStore();
+		double[] lifetimes = {1, 2, 0.5, 3, 1, 2.5};
+		long[] handles = new long[lifetimes.length];
+		for (int index = 0; index < lifetimes.length; index++)
+			handles[index] = store.getHandle(addSpark(store, index, lifetimes[index], 0));
+		Assert.equal("none dead yet", 0, store.removeDead(0.25));
+		Assert.equal("dead at 1.5", 3, store.removeDead(1.5));
+		Assert.isTrue("survivors", Arrays.equals(new double[] {1, 3, 5}, sortedX(store)));
+		for (int index = 0; index < lifetimes.length; index++) {
+			int slot = store.slotOfHandle(handles[index]);
+			Assert.equal("alive " + index, lifetimes[index] > 1.5 ? 1 : 0, slot >= 0 ? 1 : 0);
+			if (slot >= 0)
+				Assert.near("position of " + index, index, store.getX(slot), 0);
+		}
+		Assert.equal("dead at 2.75", 2, store.removeDead(2.75));
+		Assert.equal("dead at 4", 1, store.removeDead(4));
+		Assert.equal("size", 0, store.size());
+	} // end removeDeadRemovesTheDead
+
+	private static void removeDeadKeepsTheLifetime() {
+		ParticleStore store = new ParticleStore();
+		// Both die within the same tick of the wheel, 1/64 s long.
+		addSpark(store, 0, 1.001, 0);
+		addSpark(store, 1, 1.010, 0);
+		double time = 0;
+		while (time < 1.0)
+			store.removeDead(time += 0.001);
+		Assert.equal("both alive at 1.0", 2, store.size());
+		Assert.equal("one dead at 1.005", 1, store.removeDead(1.005));
+		Assert.near("survivor", 1, store.getX(0), 0);
+		Assert.equal("other dead at 1.011", 1, store.removeDead(1.011));
+	} // end removeDeadKeepsTheLifetime
+
+	private static void removeDeadSkipsKilled() {
+		ParticleStore store = new ParticleStore();
+		int slot = addSpark(store, 0, 1, 0);
+		addSpark(store, 1, 1, 0);
+		store.kill(slot);
+		// The id of the killed spark is reused by one that lives longer.
+		addSpark(store, 2, 5, 0);
+		Assert.equal("only the spark still scheduled", 1, store.removeDead(2));
+		Assert.near("survivor", 2, store.getX(0), 0);
+		Assert.equal("size", 1, store.size());
+	} // end removeDeadSkipsKilled
+
+	private static void wheelFollowsLongLives() {
+		ParticleStore store = new ParticleStore();
+		// The wheel covers 256 ticks of 1/64 s, so this spark comes round it several times.
+		addSpark(store, 0, 10, 0);
+		addSpark(store, 1, 0.5, 0);
+		double time = 0;
+		int removed = 0;
+		while (time < 9.9) {
+			time += 1.0 / 60;
+			removed += store.removeDead(time);
+		}
+		Assert.equal("short spark removed", 1, removed);
+		Assert.equal("long spark still alive", 1, store.size());
+		while (time < 10.05) {
+			time += 1.0 / 60;
+			removed += store.removeDead(time);
+		}
+		Assert.equal("long spark removed", 2, removed);
+	} // end wheelFollowsLongLives
+
+	private static void wheelSurvivesAJump() {
+		ExpiryWheel wheel = new ExpiryWheel(0.5, 4);
+		ParticleStore store = new ParticleStore();
+		for (int index = 0; index < 6; index++) {
+			int slot = addSpark(store, index, index + 0.25, 0);
+			wheel.schedule(store.getHandle(slot), index + 0.25);
+		}
+		Assert.equal("dead by 2.3", 3, wheel.expire(2.3, store));
+		// A jump longer than the wheel covers must still find every bucket.
+		Assert.equal("dead by 20", 3, wheel.expire(20, store));
+		Assert.equal("size", 0, store.size());
+	} // end wheelSurvivesAJump
+
+} // end ParticleStoreTest class
@@ -0,0 +1,122 @@
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests ShowScript: the tubes and launch events compiled from a script, the error reported
+ * with its line number for each kind of bad line, and a ShowEngine running a script.
+ * @author Jonah Chin
+ * @version 1.0
+ */
+public class ShowScriptTest {
+
+	private static final String SHOW = String.join("\n",
+			"# two tubes",
+			"tube left -10 5",
+			"",
+			"tube right 10 -5 1.5   # a shorter delay",
+			"launch 0.5 left red",
+			"launch 1 right Cyan,magenta 3 0.25",
+			"   launch 2 left white,red 2");
+
+	public static void main(String[] args) {
+		Assert.test("tubes", ShowScriptTest::tubes);
+		Assert.test("events", ShowScriptTest::events);
+		Assert.test("errors", ShowScriptTest::errors);
+		Assert.test("engine runs the script", ShowScriptTest::engineRunsTheScript);
+		Assert.finish("ShowScriptTest");
+	} // end main
+
+	// Returns the message of the error that the supplied script causes.
+	private static String errorOf(String script) {
+		return Assert.fails(script, ShowScriptException.class,
+				() -> new ShowScript(new StringReader(script))).getMessage();
+	} // end errorOf
+
+	// Checks the error that the supplied script causes.
+	private static void assertError(String expected, String script) {
+		String message = errorOf(script);
+		Assert.isTrue("expected \"" + expected + "\", got \"" + message + "\"",
+				message.equals(expected));
+	} // end assertError
+
+	private static void tubes() throws Exception {
+		TubeConfig[] tubes = new ShowScript(new StringReader(SHOW)).getTubes();
+		Assert.equal("tubes", 2, tubes.length);
+		Assert.near("left x", -10, tubes[0].getBaseX(), 0);
+		Assert.near("left angle", 5, tubes[0].getLaunchAngle(), 0);
+		Assert.near("left delay", 2.8, tubes[0].getStarDelayTime(), 0);
+		Assert.near("right x", 10, tubes[1].getBaseX(), 0);
+		Assert.near("right angle", -5, tubes[1].getLaunchAngle(), 0);
+		Assert.near("right delay", 1.5, tubes[1].getStarDelayTime(), 0);
+		Assert.equal("stars of their own", 0, tubes[0].getNumStars());
+	} // end tubes
+
+	private static void events() throws Exception {
+		List<ShowEvent> events = new ShowScript(new StringReader(SHOW)).getEvents();
+		double[] times = {0.5, 1, 1.25, 1.5, 2, 3};
+		int[] tubes = {0, 1, 1, 1, 0, 0};
+		int[] colours = {Palette.RED, Palette.CYAN, Palette.MAGENTA, Palette.CYAN, Palette.WHITE,
+			Palette.RED};
+		Assert.equal("events", times.length, events.size());
+		for (int index = 0; index < times.length; index++) {
+			ShowEvent event = events.get(index);
+			Assert.near("time of " + index, times[index], event.getTime(), 1e-12);
+			Assert.equal("tube of " + index, tubes[index], event.getTube());
+			Assert.equal("colour of " + index, colours[index], event.getColour());
+		}
+	} // end events
+
+	private static void errors() {
+		assertError("Line 2: unknown command fire", "tube a 0 0\nfire 1 a red");
+		assertError("Line 1: expected tube <name> <x> <angle> [delay]", "tube a 0");
+		assertError("Line 1: expected tube <name> <x> <angle> [delay]", "tube a 0 0 1 2");
+		assertError("Line 3: tube a is already declared", "tube a 0 0\n\ntube a 1 1");
+		assertError("Line 1: expected launch <time> <tube> <colours> [count [interval]]",
+				"launch 1 a");
+		assertError("Line 1: unknown tube a", "launch 1 a red\ntube a 0 0");
+		assertError("Line 2: unknown colour PINK", "tube a 0 0\nlaunch 1 a red,PINK");
+		assertError("Line 2: count must be at least 1", "tube a 0 0\nlaunch 1 a red 0");
+		assertError("Line 2: count must be at least 1", "tube a 0 0\nlaunch 1 a red -2");
+		assertError("Line 2: time and interval must not be negative", "tube a 0 0\nlaunch -1 a red");
+		assertError("Line 2: time and interval must not be negative",
+				"tube a 0 0\nlaunch 1 a red 2 -0.5");
+		assertError("Line 2: count must be at most 1000", "tube a 0 0\nlaunch 1 a red 1001");
+		assertError("Line 1: x must be a finite number", "tube a NaN 0");
+		assertError("Line 1: angle must be a finite number", "tube a 0 Infinity");
+		assertError("Line 1: delay must be a finite number", "tube a 0 0 NaN");
+		assertError("Line 2: time must be a finite number", "tube a 0 0\nlaunch Infinity a red");
+		assertError("Line 2: interval must be a finite number", "tube a 0 0\nlaunch 1 a red 2 NaN");
+		assertError("Line 1: angle must be from -15 to 15 degrees", "tube a 0 15.5");
+		assertError("Line 1: angle must be from -15 to 15 degrees", "tube a 0 -20");
+		assertError("Line 1: delay must be greater than 0", "tube a 0 0 0");
+		assertError("Line 1: delay must be greater than 0", "tube a 0 0 -1");
+		Assert.isTrue("bad number", errorOf("tube a 0 0\nlaunch 1 a red two")
+				.startsWith("Line 2: bad number, "));
+		Assert.isTrue("bad number", errorOf("tube a zero 0").startsWith("Line 1: bad number, "));
+		assertError("The script declares no tubes", "# nothing but a comment\n\n");
+	} // end errors
+
+	private static void engineRunsTheScript() throws Exception {
+		ShowScript script = new ShowScript(new StringReader(
+				"tube a -5 0 0.5\ntube b 5 0 0.5\nlaunch 0.5 a red\nlaunch 1 b red,white 2 0.5"));
+		ShowEngine engine = new ShowEngine(0, script, 3, ForkJoinPool.commonPool());
+		FrameTelemetry telemetry = new FrameTelemetry();
+		engine.setTelemetry(telemetry);
+		int mostStars = 0;
+		int step = 0;
+		while (!engine.isFinished() && step < 60 * 20) {
+			step++;
+			engine.step(step * SimulationThread.TIME_STEP);
+			if (step == 29)
+				Assert.equal("stars before the first launch", 0, telemetry.getLiveStars());
+			if (step == 31)
+				Assert.equal("stars after the first launch", 1, telemetry.getLiveStars());
+			mostStars = Math.max(mostStars, telemetry.getLiveStars());
+		}
+		Assert.isTrue("show finished", engine.isFinished());
+		Assert.equal("steps measured", step, telemetry.getSteps());
+		Assert.equal("most stars at once", 3, mostStars);
+	} // end engineRunsTheScript
+
+} // end ShowScriptTest class